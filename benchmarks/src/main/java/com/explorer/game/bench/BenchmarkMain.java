@@ -0,0 +1,36 @@
+package com.explorer.game.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Entry point of benchmarks.jar: org.openjdk.jmh.Main with -prof gc on (allocation per op next to every score)
+// and results written as JSON to jmh-results/<timestamp>.json, so runs can be compared between releases.
+// Explicit -prof, -rf or -rff options are passed through unchanged.
+public final class BenchmarkMain {
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-prof")) {
+            options.addAll(List.of("-prof", "gc"));
+        }
+        if (!options.contains("-rf") && !options.contains("-rff")) {
+            options.addAll(List.of("-rf", "json", "-rff", resultFile().toString()));
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+
+    private static Path resultFile() throws IOException {
+        Path directory = Files.createDirectories(Path.of("jmh-results"));
+        return directory.resolve(LocalDateTime.now().format(STAMP) + ".json");
+    }
+}
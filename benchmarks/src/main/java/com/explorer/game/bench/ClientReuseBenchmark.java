@@ -0,0 +1,75 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.HttpClientProvider;
+import com.explorer.game.HttpClientSettings;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Per-turn latency of a throwaway client (the old fetchRoomFromGrok behaviour) versus the shared pooled client
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientReuseBenchmark {
+    private static final String REQUEST_BODY =
+            "{\"model\":\"grok-2-latest\",\"messages\":[{\"role\":\"user\",\"content\":\"start\"}],\"max_tokens\":200}";
+
+    @Param({"0", "5"})
+    public int serverLatencyMillis;
+
+    private StubGrokServer server;
+    private CloseableHttpClient pooledClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = StubGrokServer.start(Duration.ofMillis(serverLatencyMillis));
+        pooledClient = HttpClientProvider.create(HttpClientSettings.defaults());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pooledClient.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String coldClient() throws IOException {
+        try (CloseableHttpClient client = HttpClients.createDefault()) {
+            return turn(client);
+        }
+    }
+
+    @Benchmark
+    public String pooledClient() throws IOException {
+        return turn(pooledClient);
+    }
+
+    private String turn(CloseableHttpClient client) throws IOException {
+        HttpPost post = new HttpPost(server.url());
+        post.setEntity(new StringEntity(REQUEST_BODY, ContentType.APPLICATION_JSON));
+        return client.execute(post, response -> EntityUtils.toString(response.getEntity()));
+    }
+}
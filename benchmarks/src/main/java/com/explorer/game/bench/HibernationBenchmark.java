@@ -0,0 +1,64 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Game;
+import com.explorer.game.ProceduralBackend;
+import com.explorer.game.SessionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Moving an idle session into SessionManager's off-heap cold store and back: hibernate() serializes and drops the Game,
+// get() rebuilds it (decode, history, story context, world graph), as the next turn of a hibernated session would
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HibernationBenchmark {
+    @Param({"20", "200"})
+    public int historyEntries;
+
+    @Param({"true", "false"})
+    public boolean compress;
+
+    private SessionManager manager;
+    private String sessionId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProceduralBackend backend = new ProceduralBackend(42, Duration.ZERO);
+        manager = new SessionManager(backend, 16,
+                new SessionManager.Hibernation(Duration.ZERO, 0, 64L * 1024 * 1024, compress));
+        sessionId = manager.register(Game.fromSnapshot(SaveFormatBenchmark.snapshot(historyEntries), backend));
+        manager.hibernate(sessionId);
+        System.out.printf("%n[cold size] history=%d compress=%s stored=%d bytes%n",
+                historyEntries, compress, manager.hibernatedBytes());
+        manager.get(sessionId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public boolean hibernateAndRehydrate() {
+        boolean hibernated = manager.hibernate(sessionId);
+        manager.get(sessionId);
+        return hibernated;
+    }
+}
@@ -0,0 +1,66 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Game;
+import com.explorer.game.HistoryStore;
+import com.explorer.game.ProceduralBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Reading the adventure log: Game.getHistory() copies every entry (reading spilled ones back from disk),
+// while the UI and prompts only need the recent window or one page of it
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryBenchmark {
+    private static final int PAGE = 20;
+
+    @Param({"100", "10000", "100000"})
+    public int historyEntries;
+
+    private Game game;
+    private HistoryStore history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Game.fromSnapshot(SaveFormatBenchmark.snapshot(historyEntries), new ProceduralBackend(42, Duration.ZERO));
+        history = game.getHistoryStore();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        game.close();
+    }
+
+    @Benchmark
+    public List<String> fullCopy() {
+        return game.getHistory();
+    }
+
+    @Benchmark
+    public List<String> recentPage() {
+        return history.range(history.end() - PAGE, PAGE);
+    }
+
+    @Benchmark
+    public List<String> firstPage() {
+        return history.page(0, PAGE);
+    }
+}
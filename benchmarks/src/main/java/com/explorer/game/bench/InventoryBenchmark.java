@@ -0,0 +1,69 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The inventory work of one turn on a large inventory: a "use" check, a pickup, a "-item" drop and reading
+// the inventory for the prompt and UI. The old Player kept an ArrayList and copied it on every read.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int items;
+
+    private String[] names;
+    private List<String> list;
+    private Player player;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        names = new String[items];
+        list = new ArrayList<>();
+        player = new Player();
+        for (int i = 0; i < items; i++) {
+            // Every tenth pickup is a duplicate, as with stacks of torches or coins
+            names[i] = "item-" + (i % 10 == 9 ? i - 1 : i);
+            list.add(names[i]);
+            player.addItem(names[i]);
+        }
+    }
+
+    @Benchmark
+    public int arrayListTurn() {
+        String item = names[next++ % items];
+        boolean held = new ArrayList<>(list).contains(item);
+        list.remove(item);
+        list.add(item);
+        List<String> copy = new ArrayList<>(list);
+        return (held ? 1 : 0) + copy.size();
+    }
+
+    @Benchmark
+    public int inventoryTurn() {
+        String item = names[next++ % items];
+        boolean held = player.hasItem(item);
+        player.removeItem(item);
+        player.addItem(item);
+        List<String> view = player.getInventory();
+        return (held ? 1 : 0) + view.size();
+    }
+}
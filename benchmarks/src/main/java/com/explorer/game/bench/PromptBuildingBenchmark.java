@@ -0,0 +1,88 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.ChatRequestEntity;
+import com.explorer.game.TurnPrompt;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One turn's prompt and request body, from template to bytes on the wire: String.formatted plus a
+// JSONObject/StringEntity body (the old path) versus compiled templates and ChatRequestEntity.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuildingBenchmark {
+    private static final String THEME = "Jungle Ruins";
+    private static final String ROOM = "Vines curl around a cracked stone archway. Beyond it, torchlight flickers "
+            + "across carvings of serpents and a sealed door set with three empty sockets.";
+    private static final String INVENTORY = "[torch x2, rope, jade idol, rusty key]";
+    private static final String STORY = "(3 earlier events) Earlier: Start -> A dense canopy hides the sun; "
+            + "follow the river -> The water grows loud near a falls. Recently: climb the falls -> A ledge opens "
+            + "onto a terrace of broken statues | search the statues -> Behind one you find a jade idol.";
+    private static final String MODEL = "grok-2-latest";
+    private static final int MAX_TOKENS = 200;
+    private static final OutputStream WIRE = OutputStream.nullOutputStream();
+
+    @Param({"OPTION", "USE", "CUSTOM"})
+    public TurnPrompt kind;
+
+    private String action;
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    @Setup
+    public void setUp() {
+        action = switch (kind) {
+            case OPTION -> "step through the archway";
+            case USE -> "torch";
+            case CUSTOM -> "press the jade idol into the middle socket";
+        };
+    }
+
+    @Benchmark
+    public String formattedAndJsonObject(Blackhole blackhole) throws IOException {
+        String template = kind.template().text();
+        String fixedText = template.formatted(THEME, "", action, "", 87, 40, "");
+        blackhole.consume(fixedText.length()); // Sizes the story context budget in Game
+        String prompt = template.formatted(THEME, ROOM, action, INVENTORY, 87, 40, STORY);
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("model", MODEL);
+        requestBody.put("messages", new JSONArray().put(new JSONObject().put("role", "user").put("content", prompt)));
+        requestBody.put("max_tokens", MAX_TOKENS);
+        new StringEntity(requestBody.toString(), ContentType.APPLICATION_JSON).writeTo(WIRE);
+        return prompt;
+    }
+
+    @Benchmark
+    public String compiledAndStreamed(Blackhole blackhole) throws IOException {
+        buffer.setLength(0);
+        kind.render(buffer, THEME, "", action, "", 87, 40, "");
+        blackhole.consume(buffer.length());
+        buffer.setLength(0);
+        kind.render(buffer, THEME, ROOM, action, INVENTORY, 87, 40, STORY);
+        String prompt = buffer.toString();
+        new ChatRequestEntity(MODEL, List.of(new ChatRequestEntity.Message("user", prompt)), MAX_TOKENS, false)
+                .writeTo(WIRE);
+        return prompt;
+    }
+}
@@ -0,0 +1,256 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Game;
+import com.explorer.game.GrokHttpBackend;
+import com.explorer.game.HttpClientProvider;
+import com.explorer.game.HttpClientSettings;
+import com.explorer.game.LatencyHistogram;
+import com.explorer.game.Metrics;
+import com.explorer.game.SessionManager;
+import com.explorer.game.TurnPolicy;
+import com.explorer.game.TurnResult;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Replays a recorded trace (story.backend=record) through the real engine: Game, GrokHttpBackend and the pooled
+// HTTP client, against a TraceReplayServer serving the recorded responses and latencies. Each simulated session
+// follows one recorded session's pacing, sped up by --speed. Reports throughput, per-stage latency percentiles
+// and allocation rate, and exits with status 1 if any --slo is missed.
+//   java -cp benchmarks/target/benchmarks.jar com.explorer.game.bench.ReplayLoadTest --trace story-recording.jsonl \
+//        [--sessions 200] [--turns 20] [--speed 10] [--warmup-sessions 50] \
+//        [--slo turn.p99=250,ttfb.p95=120,throughput=40,errors=0]
+// --sessions defaults to the number of recorded sessions and --turns to each recorded session's length.
+// SLO keys are <stage>.p50|p95|p99|p999 (milliseconds, upper bound), throughput (turns/s, lower bound) and
+// errors (failed turns, upper bound).
+public final class ReplayLoadTest {
+    private static final String[] STAGES = {"prompt", "connect", "ttfb", "body", "stream", "parse", "apply", "save"};
+
+    private record Run(long turns, long failed, String firstError, double seconds) {
+    }
+
+    private ReplayLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String trace = stringArg(args, "--trace", null);
+        if (trace == null) {
+            System.err.println("usage: ReplayLoadTest --trace <recording.jsonl> [--sessions N] [--turns N] [--speed X]"
+                    + " [--warmup-sessions N] [--slo key=value,...]");
+            System.exit(2);
+        }
+        List<TraceReplayServer.Entry> entries = TraceReplayServer.load(Path.of(trace));
+        Map<String, List<TraceReplayServer.Entry>> recorded = new LinkedHashMap<>();
+        for (TraceReplayServer.Entry entry : entries) {
+            recorded.computeIfAbsent(entry.session(), k -> new ArrayList<>()).add(entry);
+        }
+        List<List<TraceReplayServer.Entry>> timelines = new ArrayList<>(recorded.values());
+        int sessions = intArg(args, "--sessions", 0);
+        if (sessions <= 0) {
+            sessions = timelines.size();
+        }
+        int turns = intArg(args, "--turns", 0);
+        double speed = Double.parseDouble(stringArg(args, "--speed", "1"));
+        int warmupSessions = intArg(args, "--warmup-sessions", 0);
+        Map<String, Double> slos = parseSlos(stringArg(args, "--slo", ""));
+
+        System.setProperty("grok.cache.enabled", "false");
+        try (TraceReplayServer server = TraceReplayServer.start(entries, speed)) {
+            HttpClientSettings defaults = HttpClientSettings.defaults();
+            int connections = Math.max(sessions, warmupSessions);
+            GrokHttpBackend backend = new GrokHttpBackend(HttpClientProvider.create(new HttpClientSettings(
+                    defaults.connectTimeoutMillis(), defaults.responseTimeoutMillis(), defaults.keepAliveSeconds(),
+                    connections, connections)), server.url(), "replay", TurnPolicy.fromConfig());
+
+            try (SessionManager manager = new SessionManager(backend, connections)) {
+                if (warmupSessions > 0) {
+                    run(manager, timelines, warmupSessions, turns, speed, new LatencyHistogram());
+                }
+                Metrics.resetTimers();
+                LatencyHistogram client = new LatencyHistogram();
+                com.sun.management.ThreadMXBean threads =
+                        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+                long[] gcBefore = gc();
+                Run run = run(manager, timelines, sessions, turns, speed, client);
+                long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+                long[] gcAfter = gc();
+
+                System.out.printf("trace=%s recordedSessions=%d recordedCalls=%d speed=%s%n",
+                        trace, timelines.size(), entries.size(), speed);
+                System.out.printf("sessions=%d turns=%d failed=%d wall=%.2fs throughput=%.1f turns/s%n",
+                        sessions, run.turns(), run.failed(), run.seconds(), run.turns() / run.seconds());
+                System.out.printf("upstream calls=%d (%d matched a recorded prompt)%n", server.served(), server.matched());
+                if (run.firstError() != null) {
+                    System.out.println("first error: " + run.firstError());
+                }
+
+                Map<String, LatencyHistogram> stages = new LinkedHashMap<>();
+                stages.put("client", client);
+                stages.put("turn", Metrics.timer("grok_turn_seconds"));
+                for (String stage : STAGES) {
+                    stages.put(stage, Metrics.timer("grok_turn_stage_seconds", "stage", stage));
+                }
+                System.out.printf("%-8s %8s %9s %9s %9s %9s  (ms)%n", "stage", "n", "p50", "p95", "p99", "p99.9");
+                stages.forEach((stage, histogram) -> {
+                    if (histogram.count() > 0) {
+                        System.out.printf("%-8s %8d %9.2f %9.2f %9.2f %9.2f%n", stage, histogram.count(),
+                                histogram.percentileMillis(0.50), histogram.percentileMillis(0.95),
+                                histogram.percentileMillis(0.99), histogram.percentileMillis(0.999));
+                    }
+                });
+                // Per turn-type policy; counts include any warm-up sessions, latencies do not
+                System.out.print(backend.policy().report());
+                // Thread allocation counters include the in-process stand-in server
+                System.out.printf("allocation=%.1f MB/s (%.1f KB/turn) gc=%d collections, %d ms%n",
+                        allocated / 1e6 / run.seconds(), run.turns() == 0 ? 0.0 : allocated / 1e3 / run.turns(),
+                        gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+
+                boolean met = true;
+                for (Map.Entry<String, Double> slo : slos.entrySet()) {
+                    met &= check(slo.getKey(), slo.getValue(), run, stages);
+                }
+                if (!met) {
+                    System.out.println("SLO check failed");
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    // Each session starts together; turn t of a session is sent no earlier than the recorded session's
+    // t-th call, relative to its first, divided by speed
+    private static Run run(SessionManager manager, List<List<TraceReplayServer.Entry>> timelines, int sessions,
+                           int turns, double speed, LatencyHistogram client) throws Exception {
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long started = System.nanoTime();
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int s = 0; s < sessions; s++) {
+                List<TraceReplayServer.Entry> timeline = timelines.get(s % timelines.size());
+                futures.add(players.submit(() -> {
+                    String sessionId = manager.createSession("Replay").join();
+                    Game game = manager.get(sessionId).orElseThrow();
+                    long sessionStart = System.nanoTime();
+                    long firstCall = timeline.get(0).startMillis();
+                    int sessionTurns = turns > 0 ? turns : Math.max(1, timeline.size() - 1);
+                    for (int t = 1; t <= sessionTurns; t++) {
+                        TraceReplayServer.Entry call = timeline.get(Math.min(t, timeline.size() - 1));
+                        long due = sessionStart + (long) ((call.startMillis() - firstCall) * 1e6 / speed);
+                        long wait = due - System.nanoTime();
+                        if (wait > 0 && t < timeline.size()) {
+                            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                        }
+                        long begin = System.nanoTime();
+                        TurnResult result = manager.submitTurn(sessionId, pickOption(game)).join();
+                        client.record(System.nanoTime() - begin);
+                        completed.incrementAndGet();
+                        if (result.failed()) {
+                            failed.incrementAndGet();
+                            firstError.compareAndSet(null, result.error());
+                        }
+                    }
+                    manager.close(sessionId);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return new Run(completed.get(), failed.get(), firstError.get(), (System.nanoTime() - started) / 1e9);
+    }
+
+    private static boolean check(String key, double limit, Run run, Map<String, LatencyHistogram> stages) {
+        double actual;
+        boolean met;
+        String unit = "";
+        if (key.equals("throughput")) {
+            actual = run.turns() / run.seconds();
+            met = actual >= limit;
+        } else if (key.equals("errors")) {
+            actual = run.failed();
+            met = actual <= limit;
+        } else {
+            int dot = key.lastIndexOf('.');
+            LatencyHistogram histogram = dot < 0 ? null : stages.get(key.substring(0, dot));
+            if (histogram == null) {
+                throw new IllegalArgumentException("Unknown SLO " + key);
+            }
+            actual = histogram.percentileMillis(quantile(key.substring(dot + 1)));
+            met = actual <= limit;
+            unit = "ms";
+        }
+        System.out.printf("SLO %-14s limit=%s%s actual=%.2f%s %s%n", key, limit, unit, actual, unit, met ? "ok" : "MISSED");
+        return met;
+    }
+
+    private static double quantile(String name) {
+        return switch (name) {
+            case "p50" -> 0.50;
+            case "p95" -> 0.95;
+            case "p99" -> 0.99;
+            case "p999" -> 0.999;
+            default -> throw new IllegalArgumentException("Unknown percentile " + name + " (use p50, p95, p99 or p999)");
+        };
+    }
+
+    private static Map<String, Double> parseSlos(String spec) {
+        Map<String, Double> slos = new LinkedHashMap<>();
+        for (String slo : spec.split(",")) {
+            if (slo.isBlank()) {
+                continue;
+            }
+            int eq = slo.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("SLO must be key=value: " + slo);
+            }
+            slos.put(slo.substring(0, eq).trim(), Double.parseDouble(slo.substring(eq + 1).trim()));
+        }
+        return slos;
+    }
+
+    private static long[] gc() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+
+    private static String pickOption(Game game) {
+        for (String option : game.getCurrentRoom().getOptions()) {
+            if (!Game.isQuitCommand(option) && !Game.isRestartCommand(option)) {
+                return option;
+            }
+        }
+        return "look around";
+    }
+
+    private static String stringArg(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        return Integer.parseInt(stringArg(args, name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Room;
+import com.explorer.game.RoomParser;
+import com.explorer.game.RoomUpdate;
+import com.explorer.game.StateDelta;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Turning a recorded chat-completion response into a room: the old org.json path (response string, envelope
+// tree, fence stripping, room tree) versus RoomParser.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParsingBenchmark {
+    @Param({"plain", "fenced"})
+    public String content;
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        String room = StubGrokServer.defaultRoomContent();
+        if (content.equals("fenced")) {
+            room = "Here is the next room:\n```json\n" + room + "\n```\nEnjoy!";
+        }
+        response = StubGrokServer.completionEnvelope(room).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public RoomUpdate orgJson() {
+        String body = new String(response, StandardCharsets.UTF_8);
+        String messageContent = new JSONObject(body).getJSONArray("choices")
+                .getJSONObject(0)
+                .getJSONObject("message")
+                .getString("content");
+        return orgJsonRoom(messageContent);
+    }
+
+    // What the game does: envelope first (the content string is kept for the cache and recordings), then the room
+    @Benchmark
+    public RoomUpdate pull() throws IOException {
+        String messageContent = RoomParser.completion(new ByteArrayInputStream(response)).content();
+        return RoomParser.parseRoom(messageContent);
+    }
+
+    // The parseRoomContent this replaced. Unlike RoomParser it only copes with fences, not surrounding prose,
+    // so the fenced case strips down to the first '{' the way a caller would have had to.
+    private RoomUpdate orgJsonRoom(String content) {
+        String cleanedContent = content.replace("```json", "").replace("```", "").trim();
+        int start = cleanedContent.indexOf('{');
+        int end = cleanedContent.lastIndexOf('}');
+        if (start > 0 || end < cleanedContent.length() - 1) {
+            cleanedContent = cleanedContent.substring(start, end + 1);
+        }
+        JSONObject grokData = new JSONObject(cleanedContent);
+
+        JSONArray optionsArray = grokData.getJSONArray("options");
+        String[] options = new String[optionsArray.length()];
+        for (int i = 0; i < optionsArray.length(); i++) {
+            options[i] = optionsArray.getString(i);
+        }
+        List<String> inventoryUpdates = new ArrayList<>();
+        JSONArray inventoryArray = grokData.optJSONArray("inventoryUpdates");
+        if (inventoryArray != null) {
+            for (int i = 0; i < inventoryArray.length(); i++) {
+                inventoryUpdates.add(inventoryArray.getString(i));
+            }
+        }
+        return new RoomUpdate(new Room(grokData.getString("description"), options),
+                new StateDelta(inventoryUpdates, grokData.optInt("healthUpdates", 0), grokData.optInt("scoreUpdates", 0)));
+    }
+}
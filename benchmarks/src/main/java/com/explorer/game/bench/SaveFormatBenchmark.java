@@ -0,0 +1,123 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.GameSnapshot;
+import com.explorer.game.Room;
+import com.explorer.game.SaveCodec;
+import com.explorer.game.legacy.LegacySaveFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Binary save format (raw and deflated) versus the old Java serialization of the Game graph
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaveFormatBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int historyEntries;
+
+    private GameSnapshot snapshot;
+    private byte[] javaSerialized;
+    private byte[] binary;
+    private byte[] binaryDeflated;
+    private Path saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        snapshot = snapshot(historyEntries);
+        javaSerialized = encodeJava();
+        binary = encodeBinary(false);
+        binaryDeflated = encodeBinary(true);
+        saveFile = Files.createTempFile("save-bench", ".dat");
+        System.out.printf("%n[save size] history=%d java=%d bytes, binary=%d bytes, binary+deflate=%d bytes%n",
+                historyEntries, javaSerialized.length, binary.length, binaryDeflated.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveFile);
+    }
+
+    static GameSnapshot snapshot(int historyEntries) {
+        List<String> history = new ArrayList<>(historyEntries);
+        for (int i = 0; i < historyEntries; i++) {
+            history.add("You chose: search the vines\nResult: Turn " + i + ". Vines curl around a cracked stone "
+                    + "archway. Beyond it, torchlight flickers across carvings of long-forgotten kings.");
+        }
+        return new GameSnapshot("session", "Jungle Ruins", "search the vines", true, 80, 120,
+                List.of("torch", "rope", "map"),
+                new Room("Vines curl around a cracked stone archway.", new String[]{"step through", "search", "q. Quit"}),
+                history);
+    }
+
+    private byte[] encodeJava() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LegacySaveFormat.write(snapshot, out);
+        return out.toByteArray();
+    }
+
+    private byte[] encodeBinary(boolean compress) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SaveCodec.write(snapshot, out, compress);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] saveJavaSerialization() throws IOException {
+        return encodeJava();
+    }
+
+    @Benchmark
+    public byte[] saveBinary() throws IOException {
+        return encodeBinary(false);
+    }
+
+    @Benchmark
+    public byte[] saveBinaryDeflated() throws IOException {
+        return encodeBinary(true);
+    }
+
+    @Benchmark
+    public GameSnapshot loadJavaSerialization() throws IOException {
+        return LegacySaveFormat.read(new ByteArrayInputStream(javaSerialized));
+    }
+
+    @Benchmark
+    public GameSnapshot loadBinary() throws IOException {
+        return SaveCodec.read(new ByteArrayInputStream(binary));
+    }
+
+    @Benchmark
+    public GameSnapshot loadBinaryDeflated() throws IOException {
+        return SaveCodec.read(new ByteArrayInputStream(binaryDeflated));
+    }
+
+    // Full durable save: FileChannel write, fsync and atomic rename
+    @Benchmark
+    public Path saveBinaryToDisk() throws IOException {
+        SaveCodec.save(snapshot, saveFile, true);
+        return saveFile;
+    }
+}
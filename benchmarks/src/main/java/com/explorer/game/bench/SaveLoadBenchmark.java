@@ -0,0 +1,74 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Game;
+import com.explorer.game.ProceduralBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Game.saveGame and Game.loadGame through a real file, including snapshotting and rebuilding the Game
+// (history, world graph, story context); SaveFormatBenchmark covers the encoding alone
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaveLoadBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int historyEntries;
+
+    private Game game;
+    private File saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Loaded games attach to the shared backend; keep it offline
+        System.setProperty("story.backend", "procedural");
+        game = Game.fromSnapshot(SaveFormatBenchmark.snapshot(historyEntries), new ProceduralBackend(42, Duration.ZERO));
+        saveFile = Files.createTempFile("save-load-bench", ".dat").toFile();
+        game.saveGame(saveFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        game.close();
+        Files.deleteIfExists(saveFile.toPath());
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        game.saveGame(saveFile);
+        return saveFile.length();
+    }
+
+    @Benchmark
+    public int load() {
+        Game loaded = Game.loadGame(saveFile);
+        int size = loaded.getHistoryStore().size();
+        loaded.close();
+        return size;
+    }
+
+    @Benchmark
+    public int roundTrip() throws IOException {
+        game.saveGame(saveFile);
+        return load();
+    }
+}
@@ -0,0 +1,135 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.BatchStoryBackend;
+import com.explorer.game.Game;
+import com.explorer.game.GrokHttpBackend;
+import com.explorer.game.HttpClientProvider;
+import com.explorer.game.HttpClientSettings;
+import com.explorer.game.MicroBatcher;
+import com.explorer.game.ProceduralBackend;
+import com.explorer.game.SessionManager;
+import com.explorer.game.StoryBackend;
+import com.explorer.game.TurnResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Drives N concurrent sessions through a SessionManager and reports throughput and turn latency percentiles.
+//   java -cp benchmarks/target/benchmarks.jar com.explorer.game.bench.SessionLoadGenerator \
+//        --sessions 1000 --turns 20 --latency-ms 50 [--http] [--batch-window-ms 10 --batch-size 8]
+// --http sends every turn through GrokHttpBackend to a local StubGrokServer instead of the in-process stub.
+// A positive --batch-window-ms puts a MicroBatcher in front of the backend.
+public final class SessionLoadGenerator {
+    private SessionLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = intArg(args, "--sessions", 1000);
+        int turns = intArg(args, "--turns", 20);
+        Duration latency = Duration.ofMillis(intArg(args, "--latency-ms", 50));
+        boolean http = Arrays.asList(args).contains("--http");
+        int batchWindowMillis = intArg(args, "--batch-window-ms", 0);
+        int batchSize = intArg(args, "--batch-size", 8);
+
+        System.setProperty("grok.cache.enabled", "false");
+        StubGrokServer server = null;
+        BatchStoryBackend upstream;
+        if (http) {
+            server = StubGrokServer.start(latency);
+            HttpClientSettings defaults = HttpClientSettings.defaults();
+            upstream = new GrokHttpBackend(HttpClientProvider.create(new HttpClientSettings(
+                    defaults.connectTimeoutMillis(), defaults.responseTimeoutMillis(), defaults.keepAliveSeconds(),
+                    sessions, sessions)), server.url(), "stub", GrokHttpBackend.DEFAULT_MODEL, 300);
+        } else {
+            upstream = new ProceduralBackend(42, latency);
+        }
+        MicroBatcher batcher = batchWindowMillis > 0 ? new MicroBatcher(upstream, batchWindowMillis, batchSize) : null;
+        StoryBackend backend = batcher != null ? batcher : upstream;
+
+        try (SessionManager manager = new SessionManager(backend, sessions)) {
+            long[] latencies = new long[sessions * turns];
+            AtomicLong recorded = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            AtomicReference<String> firstError = new AtomicReference<>();
+            long started = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> players = new ArrayList<>();
+                for (int s = 0; s < sessions; s++) {
+                    players.add(clients.submit(() -> {
+                        String sessionId = manager.createSession("Load Test").join();
+                        Game game = manager.get(sessionId).orElseThrow();
+                        for (int t = 0; t < turns; t++) {
+                            String choice = pickOption(game);
+                            long begin = System.nanoTime();
+                            TurnResult result = manager.submitTurn(sessionId, choice).join();
+                            latencies[(int) recorded.getAndIncrement()] = System.nanoTime() - begin;
+                            if (result.failed()) {
+                                failed.incrementAndGet();
+                                firstError.compareAndSet(null, result.error());
+                            }
+                        }
+                        manager.close(sessionId);
+                        return null;
+                    }));
+                }
+                for (Future<?> player : players) {
+                    player.get();
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            long[] sorted = Arrays.copyOf(latencies, (int) recorded.get());
+            Arrays.sort(sorted);
+            System.out.printf("backend=%s sessions=%d turns/session=%d latency=%dms%n",
+                    http ? "http-stub" : "procedural", sessions, turns, latency.toMillis());
+            System.out.printf("turns=%d failed=%d wall=%.2fs throughput=%.0f turns/s%n",
+                    sorted.length, failed.get(), seconds, sorted.length / seconds);
+            if (firstError.get() != null) {
+                System.out.println("first error: " + firstError.get());
+            }
+            System.out.printf("latency ms p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            if (batcher != null) {
+                System.out.printf("batches=%d avgSize=%.2f full=%d avgQueueMs=%.2f%n", batcher.batches(),
+                        batcher.averageBatchSize(), batcher.fullBatches(), batcher.averageQueueMillis());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static String pickOption(Game game) {
+        for (String option : game.getCurrentRoom().getOptions()) {
+            if (!Game.isQuitCommand(option) && !Game.isRestartCommand(option)) {
+                return option;
+            }
+        }
+        return "look around";
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
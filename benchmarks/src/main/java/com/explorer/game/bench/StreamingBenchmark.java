@@ -0,0 +1,66 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Game;
+import com.explorer.game.TurnResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Time until the player sees the first words of a new room: streamed SSE versus a buffered response
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamingBenchmark {
+    private StubGrokServer server;
+    private Game game;
+    private String option;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = StubGrokServer.start(Duration.ofMillis(20), Duration.ofMillis(2));
+        // Must be set before Game is initialised
+        System.setProperty("grok.api.url", server.url());
+        System.setProperty("grok.api.key", "stub");
+        System.setProperty("grok.cache.enabled", "false");
+        game = new Game("Jungle Ruins");
+        option = game.getCurrentRoom().getOptions()[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public String streamingFirstWord() throws Exception {
+        game.setStreaming(true);
+        CompletableFuture<String> firstWord = new CompletableFuture<>();
+        CompletableFuture<TurnResult> turn = game.submitTurn(option, firstWord::complete);
+        String text = firstWord.get(10, TimeUnit.SECONDS);
+        turn.cancel(true);
+        return text;
+    }
+
+    @Benchmark
+    public TurnResult bufferedFirstWord() throws Exception {
+        game.setStreaming(false);
+        return game.submitTurn(option).get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,179 @@
+package com.explorer.game.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Local stand-in for the chat-completions endpoint so benchmarks never touch the real API.
+// Requests with "stream": true are answered with server-sent events, one event per simulated token.
+public final class StubGrokServer implements AutoCloseable {
+    public static final String COMPLETIONS_PATH = "/v1/chat/completions";
+    private static final int TOKEN_CHARS = 4;
+    private static final Pattern BATCH_SIZE = Pattern.compile("JSON array of exactly (\\d+) objects");
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final Duration tokenInterval;
+    private final String roomContent;
+    private final byte[] responseBody;
+    private final List<byte[]> streamEvents;
+
+    private StubGrokServer(HttpServer server, Duration latency, Duration tokenInterval, String roomContent) {
+        this.server = server;
+        this.latency = latency;
+        this.tokenInterval = tokenInterval;
+        this.roomContent = roomContent;
+        this.responseBody = completionEnvelope(roomContent).getBytes(StandardCharsets.UTF_8);
+        this.streamEvents = streamEvents(roomContent);
+    }
+
+    public static StubGrokServer start(Duration latency) throws IOException {
+        return start(latency, Duration.ZERO, defaultRoomContent());
+    }
+
+    public static StubGrokServer start(Duration latency, Duration tokenInterval) throws IOException {
+        return start(latency, tokenInterval, defaultRoomContent());
+    }
+
+    public static StubGrokServer start(Duration latency, Duration tokenInterval, String roomContent) throws IOException {
+        // Without this the JDK server's split header/body writes hit Nagle + delayed ACK on reused connections
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        // Load tests keep thousands of pooled connections open; the JDK server otherwise closes idle ones beyond 200
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "100000");
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        StubGrokServer stub = new StubGrokServer(server, latency, tokenInterval, roomContent);
+        server.createContext(COMPLETIONS_PATH, stub::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return stub;
+    }
+
+    public String url() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + COMPLETIONS_PATH;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        JSONObject json = new JSONObject(request);
+        if (json.optBoolean("stream")) {
+            stream(exchange);
+            return;
+        }
+        int batchSize = batchSize(json);
+        if (batchSize > 1) {
+            // One round trip, but every room's tokens still have to be generated
+            pause(latency.plus(tokenInterval.multipliedBy((long) streamEvents.size() * batchSize)));
+            StringBuilder rooms = new StringBuilder("[");
+            for (int i = 0; i < batchSize; i++) {
+                rooms.append(i == 0 ? "" : ", ").append(roomContent);
+            }
+            byte[] batchBody = completionEnvelope(rooms.append("]").toString()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, batchBody.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(batchBody);
+            }
+            return;
+        }
+        // A buffered response only arrives once every token has been generated
+        pause(latency.plus(tokenInterval.multipliedBy(streamEvents.size())));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, responseBody.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(responseBody);
+        }
+    }
+
+    // GrokHttpBackend.generateBatch asks for "a JSON array of exactly N objects" in its system message
+    private static int batchSize(JSONObject request) {
+        JSONObject first = request.getJSONArray("messages").getJSONObject(0);
+        if (!"system".equals(first.optString("role"))) {
+            return 1;
+        }
+        Matcher matcher = BATCH_SIZE.matcher(first.optString("content"));
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            pause(latency);
+            for (byte[] event : streamEvents) {
+                out.write(event);
+                out.flush();
+                pause(tokenInterval);
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // The client cancelled the turn mid-stream
+        }
+    }
+
+    private static void pause(Duration duration) {
+        if (!duration.isZero()) {
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static List<byte[]> streamEvents(String content) {
+        List<byte[]> events = new ArrayList<>();
+        for (int i = 0; i < content.length(); i += TOKEN_CHARS) {
+            String token = content.substring(i, Math.min(content.length(), i + TOKEN_CHARS));
+            String event = new JSONObject()
+                    .put("object", "chat.completion.chunk")
+                    .put("choices", new JSONArray().put(new JSONObject()
+                            .put("index", 0)
+                            .put("delta", new JSONObject().put("content", token))))
+                    .toString();
+            events.add(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return events;
+    }
+
+    // Written by hand so "description" comes first, as it does in real model output
+    public static String defaultRoomContent() {
+        return "{\"description\": \"Vines curl around a cracked stone archway. Beyond it, torchlight flickers.\", "
+                + "\"options\": [\"step through the archway\", \"search the vines\", \"q. Quit\"], "
+                + "\"inventoryUpdates\": [\"torch\"], \"healthUpdates\": 0, \"scoreUpdates\": 5}";
+    }
+
+    static String completionEnvelope(String content) {
+        return new JSONObject()
+                .put("id", "stub")
+                .put("object", "chat.completion")
+                .put("model", "grok-2-latest")
+                .put("choices", new JSONArray().put(new JSONObject()
+                        .put("index", 0)
+                        .put("message", new JSONObject().put("role", "assistant").put("content", content))
+                        .put("finish_reason", "stop")))
+                .toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,165 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.ResponseCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local stand-in for the chat-completions endpoint that answers with the responses of a recorded trace
+// (story.backend=record), each after its recorded latency divided by the speed multiplier.
+// A prompt that was recorded gets its own responses in turn; any other prompt gets the recorded response
+// its hash picks, so the same run against the same trace always sees the same rooms.
+public final class TraceReplayServer implements AutoCloseable {
+    private static final int TOKEN_CHARS = 4;
+
+    public record Entry(String session, long startMillis, String key, String content, long latencyMillis) {
+    }
+
+    private final HttpServer server;
+    private final List<Entry> entries;
+    private final Map<String, List<Entry>> byKey = new HashMap<>();
+    private final Map<String, AtomicInteger> cursors = new HashMap<>();
+    private final double speed;
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicInteger matched = new AtomicInteger();
+
+    private TraceReplayServer(HttpServer server, List<Entry> entries, double speed) {
+        this.server = server;
+        this.entries = entries;
+        this.speed = speed;
+        for (Entry entry : entries) {
+            byKey.computeIfAbsent(entry.key(), k -> new ArrayList<>()).add(entry);
+            cursors.putIfAbsent(entry.key(), new AtomicInteger());
+        }
+    }
+
+    public static List<Entry> load(Path trace) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(trace, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JSONObject json = new JSONObject(line);
+            // Traces from before sessions and start times were recorded replay as one session, unpaced
+            entries.add(new Entry(json.optString("session", "recorded"), json.optLong("startMs", 0),
+                    json.getString("key"), json.getString("content"), json.optLong("latencyMs", 0)));
+        }
+        if (entries.isEmpty()) {
+            throw new IOException(trace + " contains no recorded responses");
+        }
+        return entries;
+    }
+
+    public static TraceReplayServer start(List<Entry> entries, double speed) throws IOException {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be positive");
+        }
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "100000");
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        TraceReplayServer replay = new TraceReplayServer(server, entries, speed);
+        server.createContext(StubGrokServer.COMPLETIONS_PATH, replay::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return replay;
+    }
+
+    public String url() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + StubGrokServer.COMPLETIONS_PATH;
+    }
+
+    public int served() {
+        return served.get();
+    }
+
+    // Requests whose prompt was in the trace, as opposed to answered by hash
+    public int matched() {
+        return matched.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        JSONObject json = new JSONObject(request);
+        JSONArray messages = json.getJSONArray("messages");
+        String prompt = messages.getJSONObject(messages.length() - 1).getString("content");
+        Entry entry = pick(ResponseCache.key(prompt));
+        served.incrementAndGet();
+        pause(Duration.ofNanos((long) (entry.latencyMillis() * 1e6 / speed)));
+        if (json.optBoolean("stream")) {
+            stream(exchange, entry.content());
+            return;
+        }
+        byte[] body = StubGrokServer.completionEnvelope(entry.content()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Entry pick(String key) {
+        List<Entry> recorded = byKey.get(key);
+        if (recorded != null) {
+            matched.incrementAndGet();
+            return recorded.get(cursors.get(key).getAndIncrement() % recorded.size());
+        }
+        return entries.get(Math.floorMod(key.hashCode(), entries.size()));
+    }
+
+    // The recorded latency covers the whole response, so the events follow it back to back
+    private static void stream(HttpExchange exchange, String content) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < content.length(); i += TOKEN_CHARS) {
+                String event = new JSONObject()
+                        .put("object", "chat.completion.chunk")
+                        .put("choices", new JSONArray().put(new JSONObject()
+                                .put("index", 0)
+                                .put("delta", new JSONObject()
+                                        .put("content", content.substring(i, Math.min(content.length(), i + TOKEN_CHARS))))))
+                        .toString();
+                out.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // The client cancelled the turn mid-stream
+        }
+    }
+
+    private static void pause(Duration duration) {
+        if (!duration.isZero()) {
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
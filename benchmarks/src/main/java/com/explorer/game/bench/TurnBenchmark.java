@@ -0,0 +1,94 @@
+package com.explorer.game.bench;
+
+import com.explorer.game.Game;
+import com.explorer.game.GrokHttpBackend;
+import com.explorer.game.HttpClientProvider;
+import com.explorer.game.HttpClientSettings;
+import com.explorer.game.ProceduralBackend;
+import com.explorer.game.Room;
+import com.explorer.game.StoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// One whole updateGameState turn with zero upstream latency, so what's left is the engine's own cost: prompt,
+// request, parse, state update, history and world graph. "procedural" stays in process; "http" adds
+// GrokHttpBackend and the pooled client talking to a local StubGrokServer. Each iteration starts a fresh game
+// so history keeps a realistic size.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TurnBenchmark {
+    @Param({"procedural", "http"})
+    public String backend;
+
+    private StubGrokServer server;
+    private StoryBackend story;
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Must be set before Game is initialised
+        System.setProperty("grok.cache.enabled", "false");
+        if (backend.equals("http")) {
+            server = StubGrokServer.start(Duration.ZERO);
+            story = new GrokHttpBackend(HttpClientProvider.create(HttpClientSettings.defaults()), server.url(), "stub",
+                    GrokHttpBackend.DEFAULT_MODEL, 300);
+        } else {
+            story = new ProceduralBackend(42, Duration.ZERO);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void newGame() {
+        game = new Game("Jungle Ruins", story);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeGame() {
+        game.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Benchmark
+    public Room turn() {
+        if (!game.isRunning() || game.getPlayerHealth() <= 0) {
+            game.close();
+            game = new Game("Jungle Ruins", story);
+        }
+        game.updateGameState(pickOption(game));
+        return game.getCurrentRoom();
+    }
+
+    private static String pickOption(Game game) {
+        for (String option : game.getCurrentRoom().getOptions()) {
+            if (!Game.isQuitCommand(option) && !Game.isRestartCommand(option)) {
+                return option;
+            }
+        }
+        return "look around";
+    }
+}
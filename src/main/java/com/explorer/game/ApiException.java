@@ -0,0 +1,20 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.Serial;
+
+public class ApiException extends IOException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public ApiException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,321 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+// Shared front door to the model API for every Game in the process:
+//  - identical prompts already in flight share one upstream call (single-flight); hedged attempts of a
+//    request are kept apart from the attempt they duplicate
+//  - upstream calls are admitted by requests/min and tokens/min buckets, round-robin across sessions,
+//    from a bounded wait queue
+//  - 429 and 5xx responses are retried with capped exponential backoff and full jitter
+public final class BackendGateway implements StoryBackend {
+    private final StoryBackend delegate;
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final ToIntFunction<StoryRequest> expectedOutputTokens;
+    private final int maxQueue;
+    private final int maxRetries;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService upstream = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition queued = queueLock.newCondition();
+    private final Map<String, ArrayDeque<Admission>> waitingBySession = new HashMap<>();
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private int waiting;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttledNanos = new LongAdder();
+
+    public record Settings(long requestsPerMinute, long tokensPerMinute, int expectedOutputTokens, int maxQueue,
+                           int maxRetries, long backoffBaseMillis, long backoffMaxMillis) {
+        public Settings {
+            if (maxQueue <= 0 || maxRetries < 0 || backoffBaseMillis <= 0 || backoffMaxMillis < backoffBaseMillis) {
+                throw new IllegalArgumentException("Invalid gateway settings");
+            }
+        }
+
+        // A rate of 0 disables that bucket
+        public static Settings fromConfig() {
+            return new Settings(
+                    Config.getInt("grok.gateway.requestsPerMinute", 480),
+                    Config.getInt("grok.gateway.tokensPerMinute", 0),
+                    Config.getInt("grok.api.maxTokens", 200),
+                    Config.getInt("grok.gateway.maxQueue", 1000),
+                    Config.getInt("grok.gateway.maxRetries", 4),
+                    Config.getInt("grok.gateway.backoffBaseMs", 500),
+                    Config.getInt("grok.gateway.backoffMaxMs", 30_000));
+        }
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        private volatile Future<?> task;
+    }
+
+    private static final class Admission {
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+        private final long tokens;
+
+        private Admission(long tokens) {
+            this.tokens = tokens;
+        }
+    }
+
+    public BackendGateway(StoryBackend delegate, Settings settings) {
+        this(delegate, settings, request -> settings.expectedOutputTokens());
+    }
+
+    // expectedOutputTokens gives the max_tokens the call will be sent with, which the tokens/min bucket reserves
+    public BackendGateway(StoryBackend delegate, Settings settings, ToIntFunction<StoryRequest> expectedOutputTokens) {
+        this.delegate = delegate;
+        this.requestBucket = settings.requestsPerMinute() > 0
+                ? new TokenBucket(settings.requestsPerMinute(), Math.max(1, settings.requestsPerMinute() / 4)) : null;
+        this.tokenBucket = settings.tokensPerMinute() > 0
+                ? new TokenBucket(settings.tokensPerMinute(), Math.max(1, settings.tokensPerMinute() / 4)) : null;
+        this.expectedOutputTokens = expectedOutputTokens;
+        this.maxQueue = settings.maxQueue();
+        this.maxRetries = settings.maxRetries();
+        this.backoffBaseMillis = settings.backoffBaseMillis();
+        this.backoffMaxMillis = settings.backoffMaxMillis();
+        Thread.ofVirtual().name("gateway-dispatcher").start(this::dispatch);
+    }
+
+    @Override
+    public String generate(StoryRequest request, Consumer<String> contentListener) throws IOException {
+        calls.increment();
+        String key = flightKey(request);
+        Flight flight = new Flight();
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null && existing.waiters.getAndIncrement() > 0) {
+            coalesced.increment();
+            String content = await(key, existing);
+            if (contentListener != null) {
+                contentListener.accept(content);
+            }
+            return content;
+        }
+        if (existing != null) {
+            // The flight was abandoned by all its waiters just now; start a fresh one
+            inFlight.remove(key, existing);
+            return generate(request, contentListener);
+        }
+        flight.task = upstream.submit(() -> {
+            try {
+                flight.result.complete(callWithRetries(request, contentListener));
+            } catch (Throwable t) {
+                flight.result.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        });
+        return await(key, flight);
+    }
+
+    private static String flightKey(StoryRequest request) {
+        return request.attempt() == 0 ? request.prompt() : request.prompt() + '\0' + request.attempt();
+    }
+
+    // Waits for the shared result; the upstream call is cancelled only when every waiter has given up
+    private String await(String key, Flight flight) throws IOException {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (flight.waiters.decrementAndGet() == 0) {
+                inFlight.remove(key, flight);
+                Future<?> task = flight.task;
+                if (task != null) {
+                    task.cancel(true);
+                }
+            }
+            throw new InterruptedIOException("Turn cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Request cancelled");
+        }
+    }
+
+    private String callWithRetries(StoryRequest request, Consumer<String> contentListener) throws IOException {
+        long tokens = StoryContext.estimateTokens(request.prompt()) + expectedOutputTokens.applyAsInt(request);
+        for (int attempt = 0; ; attempt++) {
+            admit(request.sessionId(), tokens);
+            try {
+                return delegate.generate(request, contentListener);
+            } catch (ApiException e) {
+                if (!retryable(e) || attempt >= maxRetries) {
+                    throw e;
+                }
+                retries.increment();
+                sleep(backoffMillis(attempt));
+            }
+        }
+    }
+
+    // Usage the delegate incurred beyond what was admitted (e.g. continuation calls). It is taken from the
+    // buckets without waiting; the debt delays the calls admitted next.
+    public void charge(int requests, long tokens) {
+        if (requestBucket != null && requests > 0) {
+            requestBucket.reserve(requests);
+        }
+        if (tokenBucket != null && tokens > 0) {
+            tokenBucket.reserve(tokens);
+        }
+    }
+
+    private static boolean retryable(ApiException e) {
+        return e.getStatusCode() == 429 || e.getStatusCode() >= 500;
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^attempt)]
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void admit(String sessionId, long tokens) throws IOException {
+        if (requestBucket == null && tokenBucket == null) {
+            return;
+        }
+        Admission admission = new Admission(tokens);
+        queueLock.lock();
+        try {
+            if (waiting >= maxQueue) {
+                rejected.increment();
+                throw new ApiException(429, "Too many requests waiting for the API, try again shortly");
+            }
+            String key = sessionId == null ? "" : sessionId;
+            ArrayDeque<Admission> sessionQueue = waitingBySession.get(key);
+            if (sessionQueue == null) {
+                sessionQueue = new ArrayDeque<>();
+                waitingBySession.put(key, sessionQueue);
+                rotation.addLast(key);
+            }
+            sessionQueue.addLast(admission);
+            waiting++;
+            queued.signal();
+        } finally {
+            queueLock.unlock();
+        }
+        try {
+            admission.granted.get();
+        } catch (InterruptedException e) {
+            admission.granted.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request cancelled");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Single dispatcher: picks the next session round-robin, then paces it by both buckets
+    private void dispatch() {
+        while (true) {
+            Admission next;
+            try {
+                next = takeFair();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (next.granted.isDone()) {
+                continue;
+            }
+            long waitNanos = 0;
+            if (requestBucket != null) {
+                waitNanos = requestBucket.reserve(1);
+            }
+            if (tokenBucket != null) {
+                waitNanos = Math.max(waitNanos, tokenBucket.reserve(next.tokens));
+            }
+            if (waitNanos > 0) {
+                throttledNanos.add(waitNanos);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            next.granted.complete(null);
+        }
+    }
+
+    private Admission takeFair() throws InterruptedException {
+        queueLock.lock();
+        try {
+            while (rotation.isEmpty()) {
+                queued.await();
+            }
+            String session = rotation.removeFirst();
+            ArrayDeque<Admission> sessionQueue = waitingBySession.get(session);
+            Admission next = sessionQueue.removeFirst();
+            if (sessionQueue.isEmpty()) {
+                waitingBySession.remove(session);
+            } else {
+                rotation.addLast(session);
+            }
+            waiting--;
+            return next;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request cancelled");
+        }
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long throttledMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(throttledNanos.sum());
+    }
+}
@@ -0,0 +1,10 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.util.List;
+
+// A backend that can answer several requests in one upstream call.
+// Returns one room payload per request, in request order.
+public interface BatchStoryBackend extends StoryBackend {
+    List<String> generateBatch(List<StoryRequest> requests) throws IOException;
+}
@@ -0,0 +1,195 @@
+package com.explorer.game;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+// Chat-completion request body written straight to the connection: message text is JSON-escaped and
+// UTF-8 encoded as it is copied out, with no JSONObject, body string or byte[] of the whole payload.
+// The length is worked out by a counting pass first, so the request keeps a Content-Length and stays
+// repeatable for retries.
+public final class ChatRequestEntity extends AbstractHttpEntity {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    public record Message(String role, CharSequence content) {
+    }
+
+    private final String model;
+    private final List<Message> messages;
+    private final int maxTokens;
+    private final double temperature;
+    private final boolean stream;
+    private final long length;
+
+    public ChatRequestEntity(String model, List<Message> messages, int maxTokens, boolean stream) {
+        this(model, messages, maxTokens, Double.NaN, stream);
+    }
+
+    // A NaN temperature leaves it out, so the API default applies
+    public ChatRequestEntity(String model, List<Message> messages, int maxTokens, double temperature, boolean stream) {
+        super(ContentType.APPLICATION_JSON, null);
+        this.model = model;
+        this.messages = messages;
+        this.maxTokens = maxTokens;
+        this.temperature = temperature;
+        this.stream = stream;
+        try {
+            this.length = encode(null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Counting never touches a stream
+        }
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        encode(out);
+    }
+
+    // Only for callers that insist on pulling the body; the client itself uses writeTo
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream((int) length);
+        writeTo(body);
+        return new ByteArrayInputStream(body.toByteArray());
+    }
+
+    @Override
+    public void close() {
+    }
+
+    // Writes the body to out, or only counts its bytes when out is null
+    private long encode(OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(out);
+        encoder.ascii("{\"model\":");
+        encoder.string(model);
+        encoder.ascii(",\"messages\":[");
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            encoder.ascii(i == 0 ? "{\"role\":" : ",{\"role\":");
+            encoder.string(message.role());
+            encoder.ascii(",\"content\":");
+            encoder.string(message.content());
+            encoder.ascii("}");
+        }
+        encoder.ascii("],\"max_tokens\":");
+        encoder.ascii(Integer.toString(maxTokens));
+        if (!Double.isNaN(temperature)) {
+            encoder.ascii(",\"temperature\":");
+            encoder.ascii(Double.toString(temperature));
+        }
+        if (stream) {
+            encoder.ascii(",\"stream\":true");
+        }
+        encoder.ascii("}");
+        return encoder.finish();
+    }
+
+    private static final class Encoder {
+        private final OutputStream out;
+        private final byte[] buffer;
+        private int position;
+        private long count;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+            this.buffer = out == null ? null : new byte[1024];
+        }
+
+        void ascii(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                put(text.charAt(i));
+            }
+        }
+
+        void string(CharSequence text) throws IOException {
+            put('"');
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put('\\');
+                    put(c);
+                } else if (c < 0x20) {
+                    escapeControl(c);
+                } else if (c < 0x80) {
+                    put(c);
+                } else if (c < 0x800) {
+                    put(0xC0 | (c >> 6));
+                    put(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    put(0xF0 | (codePoint >> 18));
+                    put(0x80 | ((codePoint >> 12) & 0x3F));
+                    put(0x80 | ((codePoint >> 6) & 0x3F));
+                    put(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    put('?'); // Unpaired surrogate, as String.getBytes would encode it
+                } else {
+                    put(0xE0 | (c >> 12));
+                    put(0x80 | ((c >> 6) & 0x3F));
+                    put(0x80 | (c & 0x3F));
+                }
+            }
+            put('"');
+        }
+
+        private void escapeControl(char c) throws IOException {
+            put('\\');
+            switch (c) {
+                case '\n' -> put('n');
+                case '\r' -> put('r');
+                case '\t' -> put('t');
+                case '\b' -> put('b');
+                case '\f' -> put('f');
+                default -> {
+                    put('u');
+                    put('0');
+                    put('0');
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xF]);
+                }
+            }
+        }
+
+        private void put(int b) throws IOException {
+            count++;
+            if (buffer == null) {
+                return;
+            }
+            if (position == buffer.length) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        long finish() throws IOException {
+            if (buffer != null && position > 0) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Stops waiting on a provider that is clearly down. Outcomes of the last `window` calls are tracked; once
+// at least minCalls are in and the failure ratio reaches the threshold the circuit opens and requests go
+// straight to the fallback (or fail fast when there is none). After openMillis one trial call is let
+// through: success closes the circuit, failure re-opens it. Latency is exported as grok_breaker_seconds{outcome}.
+public final class CircuitBreakerBackend implements StoryBackend {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final StoryBackend delegate;
+    private final StoryBackend fallback;
+    private final boolean[] outcomes;
+    private final int minCalls;
+    private final double failureRatio;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    // Fallback rooms handed out and still referenced, so the caller can tell them apart from real replies
+    private final Set<String> fallbackContent = Collections.newSetFromMap(new WeakHashMap<>());
+    private final LatencyHistogram successLatency = Metrics.timer("grok_breaker_seconds", "outcome", "success");
+    private final LatencyHistogram failureLatency = Metrics.timer("grok_breaker_seconds", "outcome", "failure");
+    private final LatencyHistogram fallbackLatency = Metrics.timer("grok_breaker_seconds", "outcome", "fallback");
+
+    public CircuitBreakerBackend(StoryBackend delegate, StoryBackend fallback, int window, int minCalls,
+                                 double failureRatio, long openMillis) {
+        if (window <= 0 || minCalls <= 0 || minCalls > window || failureRatio <= 0 || failureRatio > 1 || openMillis <= 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.delegate = delegate;
+        this.fallback = fallback;
+        this.outcomes = new boolean[window];
+        this.minCalls = minCalls;
+        this.failureRatio = failureRatio;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    // grok.breaker.fallback: procedural (offline rooms, default) or none (the game shows its void room)
+    public static CircuitBreakerBackend fromConfig(StoryBackend delegate) {
+        String fallbackName = Config.get("grok.breaker.fallback", "procedural");
+        StoryBackend fallback = switch (fallbackName) {
+            case "procedural" -> ProceduralBackend.fromConfig();
+            case "none" -> null;
+            default -> throw new IllegalStateException("Unknown grok.breaker.fallback: " + fallbackName);
+        };
+        return new CircuitBreakerBackend(delegate, fallback,
+                Config.getInt("grok.breaker.window", 20),
+                Config.getInt("grok.breaker.minCalls", 10),
+                Double.parseDouble(Config.get("grok.breaker.failureRatio", "0.5")),
+                Config.getInt("grok.breaker.openMs", 30_000));
+    }
+
+    @Override
+    public String generate(StoryRequest request, Consumer<String> contentListener) throws IOException {
+        long started = System.nanoTime();
+        if (!permit()) {
+            shortCircuited.increment();
+            return fallback(request, contentListener, null);
+        }
+        try {
+            String content = delegate.generate(request, contentListener);
+            onResult(true);
+            successLatency.record(System.nanoTime() - started);
+            return content;
+        } catch (InterruptedIOException e) {
+            releaseTrial();
+            throw e;
+        } catch (IOException e) {
+            if (!countsAsFailure(e)) {
+                releaseTrial();
+                throw e;
+            }
+            onResult(false);
+            failureLatency.record(System.nanoTime() - started);
+            return fallback(request, contentListener, e);
+        } catch (RuntimeException | Error e) {
+            // A reply that cannot be parsed is a failed call too, and a half-open trial must not stay claimed
+            onResult(false);
+            failureLatency.record(System.nanoTime() - started);
+            throw e;
+        }
+    }
+
+    // Client errors other than 429 say nothing about the provider's health
+    private static boolean countsAsFailure(IOException e) {
+        return !(e instanceof ApiException api) || api.getStatusCode() == 429 || api.getStatusCode() >= 500
+                || api.getStatusCode() < 400;
+    }
+
+    private String fallback(StoryRequest request, Consumer<String> contentListener, IOException cause) throws IOException {
+        if (fallback == null) {
+            if (cause != null) {
+                throw cause;
+            }
+            throw new ApiException(503, "Story service unavailable, try again shortly");
+        }
+        fallbacks.increment();
+        long started = System.nanoTime();
+        String content = fallback.generate(request, contentListener);
+        fallbackLatency.record(System.nanoTime() - started);
+        synchronized (fallbackContent) {
+            // Re-added so the entry is held by this copy, not an equal one that may already be unreachable
+            fallbackContent.remove(content);
+            fallbackContent.add(content);
+        }
+        return content;
+    }
+
+    @Override
+    public boolean isFallback(String content) {
+        synchronized (fallbackContent) {
+            return fallbackContent.contains(content);
+        }
+    }
+
+    private synchronized boolean permit() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    private synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    private synchronized void onResult(boolean success) {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            if (success) {
+                state = State.CLOSED;
+                next = recorded = failures = 0;
+            } else {
+                open();
+            }
+            return;
+        }
+        if (recorded == outcomes.length) {
+            if (!outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = success;
+        if (!success) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+        if (state == State.CLOSED && recorded >= minCalls && failures >= failureRatio * recorded) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public long shortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    public LatencyHistogram successLatency() {
+        return successLatency;
+    }
+
+    public LatencyHistogram failureLatency() {
+        return failureLatency;
+    }
+
+    public LatencyHistogram fallbackLatency() {
+        return fallbackLatency;
+    }
+}
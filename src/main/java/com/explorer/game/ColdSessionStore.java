@@ -0,0 +1,162 @@
+package com.explorer.game;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+// Off-heap arena for hibernated sessions. Memory is taken from the OS in direct pages, and each page in use is
+// carved into power-of-two slots (1 KB and up) of one size class, so storing and releasing a session never
+// allocates direct memory once the arena is warm and never waits on the GC to free it. A page whose slots are
+// all free goes back to a shared pool for any size class; when no page is left, a slot of a larger class is
+// used. Records larger than a page get a dedicated buffer. Pages are kept for reuse until the store is dropped.
+public final class ColdSessionStore {
+    private static final int MIN_SHIFT = 10;
+    private static final int PAGE_SHIFT = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private static final class Page {
+        private final ByteBuffer memory;
+        private final int shift;
+        private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+        private Page(ByteBuffer memory, int shift) {
+            this.memory = memory;
+            this.shift = shift;
+            int size = 1 << shift;
+            for (int offset = 0; offset < PAGE_SIZE; offset += size) {
+                free.push(memory.slice(offset, size));
+            }
+        }
+
+        private boolean unused() {
+            return free.size() == PAGE_SIZE >> shift;
+        }
+    }
+
+    private final long maxBytes;
+    // Per size class, the pages that still have a free slot
+    private final List<ArrayDeque<Page>> partial = new ArrayList<>();
+    private final ArrayDeque<ByteBuffer> freePages = new ArrayDeque<>();
+    private final IdentityHashMap<ByteBuffer, Page> owners = new IdentityHashMap<>();
+    private long reservedBytes;
+    private long storedBytes;
+    private int records;
+
+    public ColdSessionStore(long maxBytes) {
+        if (maxBytes < PAGE_SIZE) {
+            throw new IllegalArgumentException("The cold store needs at least " + PAGE_SIZE + " bytes");
+        }
+        this.maxBytes = maxBytes;
+        for (int shift = MIN_SHIFT; shift <= PAGE_SHIFT; shift++) {
+            partial.add(new ArrayDeque<>());
+        }
+    }
+
+    // A slot holding a copy of the bytes (position 0, limit length), or null when the arena is full.
+    // It belongs to the store: read it through open() and hand it back with release().
+    public synchronized ByteBuffer store(byte[] data, int length) {
+        ByteBuffer slot = allocate(length);
+        if (slot == null) {
+            return null;
+        }
+        slot.clear();
+        slot.put(data, 0, length).flip();
+        storedBytes += length;
+        records++;
+        return slot;
+    }
+
+    public synchronized void release(ByteBuffer record) {
+        storedBytes -= record.limit();
+        records--;
+        Page page = owners.remove(record);
+        if (page == null) {
+            // Dedicated buffers above page size go back to the OS with the GC
+            reservedBytes -= record.capacity();
+            return;
+        }
+        boolean wasFull = page.free.isEmpty();
+        page.free.push(record);
+        if (page.unused()) {
+            if (!wasFull) {
+                partial.get(page.shift - MIN_SHIFT).remove(page);
+            }
+            freePages.push(page.memory);
+        } else if (wasFull) {
+            partial.get(page.shift - MIN_SHIFT).addLast(page);
+        }
+    }
+
+    // Reads the record without copying it back onto the heap first
+    public static InputStream open(ByteBuffer record) {
+        ByteBuffer view = record.duplicate().rewind();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return view.hasRemaining() ? view.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (!view.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, view.remaining());
+                view.get(b, off, n);
+                return n;
+            }
+        };
+    }
+
+    public synchronized int records() {
+        return records;
+    }
+
+    // Bytes of session data held
+    public synchronized long storedBytes() {
+        return storedBytes;
+    }
+
+    // Direct memory taken from the OS, including free slots
+    public synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    private ByteBuffer allocate(int length) {
+        int shift = Math.max(MIN_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(1, length - 1)));
+        if (shift > PAGE_SHIFT) {
+            if (reservedBytes + length > maxBytes) {
+                return null;
+            }
+            reservedBytes += length;
+            return ByteBuffer.allocateDirect(length);
+        }
+        ArrayDeque<Page> pages = partial.get(shift - MIN_SHIFT);
+        if (pages.isEmpty()) {
+            ByteBuffer memory = freePages.poll();
+            if (memory == null && reservedBytes + PAGE_SIZE <= maxBytes) {
+                reservedBytes += PAGE_SIZE;
+                memory = ByteBuffer.allocateDirect(PAGE_SIZE);
+            }
+            if (memory != null) {
+                pages.push(new Page(memory, shift));
+            }
+        }
+        for (int larger = shift; pages.isEmpty() && larger < PAGE_SHIFT; larger++) {
+            pages = partial.get(larger + 1 - MIN_SHIFT);
+        }
+        if (pages.isEmpty()) {
+            return null;
+        }
+        Page page = pages.peekFirst();
+        ByteBuffer slot = page.free.pop();
+        if (page.free.isEmpty()) {
+            pages.removeFirst();
+        }
+        owners.put(slot, page);
+        return slot;
+    }
+}
@@ -0,0 +1,60 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+public final class Config {
+    private static final String RESOURCE = "application.properties";
+    private static volatile Properties properties;
+
+    private Config() {
+    }
+
+    public static Properties properties() {
+        Properties props = properties;
+        if (props == null) {
+            synchronized (Config.class) {
+                props = properties;
+                if (props == null) {
+                    props = load();
+                    properties = props;
+                }
+            }
+        }
+        return props;
+    }
+
+    // System properties win over application.properties so tools and benchmarks can override settings
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = properties().getProperty(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid integer for " + key + ": " + value);
+        }
+    }
+
+    private static Properties load() {
+        Properties props = new Properties();
+        try (InputStream input = Config.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + RESOURCE + ": " + e.getMessage(), e);
+        }
+        return props;
+    }
+}
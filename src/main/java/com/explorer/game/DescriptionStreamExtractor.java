@@ -0,0 +1,94 @@
+package com.explorer.game;
+
+import java.util.function.Consumer;
+
+// Pulls the "description" string out of a room payload while it is still being generated
+final class DescriptionStreamExtractor {
+    private static final String KEY = "\"description\"";
+
+    private enum State { SEARCH_KEY, AFTER_KEY, AFTER_COLON, IN_VALUE, ESCAPE, UNICODE, DONE }
+
+    private final Consumer<String> sink;
+    private State state = State.SEARCH_KEY;
+    private int keyMatched;
+    private int unicodeValue;
+    private int unicodeDigits;
+
+    DescriptionStreamExtractor(Consumer<String> sink) {
+        this.sink = sink;
+    }
+
+    void accept(CharSequence chunk) {
+        if (state == State.DONE) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(chunk.length());
+        for (int i = 0; i < chunk.length() && state != State.DONE; i++) {
+            char c = chunk.charAt(i);
+            switch (state) {
+                case SEARCH_KEY -> {
+                    if (c == KEY.charAt(keyMatched)) {
+                        keyMatched++;
+                        if (keyMatched == KEY.length()) {
+                            keyMatched = 0;
+                            state = State.AFTER_KEY;
+                        }
+                    } else {
+                        keyMatched = c == KEY.charAt(0) ? 1 : 0;
+                    }
+                }
+                case AFTER_KEY -> {
+                    if (c == ':') {
+                        state = State.AFTER_COLON;
+                    } else if (!Character.isWhitespace(c)) {
+                        state = State.SEARCH_KEY;
+                    }
+                }
+                case AFTER_COLON -> {
+                    if (c == '"') {
+                        state = State.IN_VALUE;
+                    } else if (!Character.isWhitespace(c)) {
+                        state = State.SEARCH_KEY;
+                    }
+                }
+                case IN_VALUE -> {
+                    if (c == '\\') {
+                        state = State.ESCAPE;
+                    } else if (c == '"') {
+                        state = State.DONE;
+                    } else {
+                        text.append(c);
+                    }
+                }
+                case ESCAPE -> {
+                    state = State.IN_VALUE;
+                    switch (c) {
+                        case 'n' -> text.append('\n');
+                        case 't' -> text.append('\t');
+                        case 'r' -> text.append('\r');
+                        case 'b' -> text.append('\b');
+                        case 'f' -> text.append('\f');
+                        case 'u' -> {
+                            state = State.UNICODE;
+                            unicodeValue = 0;
+                            unicodeDigits = 0;
+                        }
+                        default -> text.append(c);
+                    }
+                }
+                case UNICODE -> {
+                    unicodeValue = (unicodeValue << 4) + Character.digit(c, 16);
+                    if (++unicodeDigits == 4) {
+                        text.append((char) unicodeValue);
+                        state = State.IN_VALUE;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        if (!text.isEmpty()) {
+            sink.accept(text.toString());
+        }
+    }
+}
@@ -1,63 +1,263 @@
 package com.explorer.game;
 
-import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.*;
-import java.util.ArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Properties;
-
-public class Game implements Serializable {
-    @Serial
-    private static final long serialVersionUID = 1L;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class Game {
     private static final String QUIT_COMMAND = "q";
     private static final String RESTART_COMMAND = "r";
-    private static final String API_URL = "https://api.x.ai/v1/chat/completions";
-    private static final String API_KEY;
-
-    static {
-        Properties props = new Properties();
-        try (InputStream input = Game.class.getClassLoader().getResourceAsStream("application.properties")) {
-            if (input == null) {
-                throw new IllegalStateException("application.properties not found in src/main/resources");
-            }
-            props.load(input);
-            API_KEY = props.getProperty("grok.api.key");
-            if (API_KEY == null || API_KEY.isEmpty()) {
-                throw new IllegalStateException("Grok API key not set in application.properties");
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to load Grok API key: " + e.getMessage());
-        }
-    }
+    private static final Set<String> BACK_COMMANDS = Set.of("back", "go back", "return", "turn back");
+    private static final ExecutorService TURN_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final int CONTEXT_SEED_ENTRIES = 64;
+    private static final Logger log = LoggerFactory.getLogger(Game.class);
+    private static final LatencyHistogram TURN_TIME = Metrics.timer("grok_turn_seconds");
+    private static final LatencyHistogram PROMPT_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "prompt");
+    private static final LatencyHistogram PARSE_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "parse");
+    private static final LatencyHistogram APPLY_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "apply");
+    private static final LatencyHistogram SAVE_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "save");
+    private static final LongAdder GENERATED_TURNS = Metrics.counter("grok_turns_total", "source", "generated");
+    private static final LongAdder REVISITED_TURNS = Metrics.counter("grok_turns_total", "source", "revisit");
+    private static final LongAdder FAILED_TURNS = Metrics.counter("grok_turns_total", "source", "failed");
 
     private Room currentRoom;
     private final Player player;
     private boolean running;
     private String lastChoice;
     private final String adventureTheme;
-    private final List<String> history;
-    private transient String lastError;
+    private final HistoryStore history;
+    private String sessionId;
+    private String lastError;
+    private StoryBackend backend;
+    private ReentrantLock turnLock;
+    private final Set<CompletableFuture<TurnResult>> inFlightTurns = ConcurrentHashMap.newKeySet();
+    private RoomPrefetcher prefetcher;
+    private volatile boolean streaming;
+    private ResponseCache responseCache;
+    private SessionJournal journal;
+    private final StoryContext context;
+    private WorldGraph world;
+    // Turns are applied one at a time under turnLock, so one prompt buffer per session is enough
+    private final StringBuilder promptBuffer = new StringBuilder(4096);
 
     public Game(String theme) {
-        this.player = new Player();
-        this.running = true;
-        this.lastChoice = "start";
+        this(theme, StoryBackends.shared());
+    }
+
+    public Game(String theme, StoryBackend backend) {
+        this(UUID.randomUUID().toString(), theme, new Player(), "start", true, HistoryStore.fromConfig(), backend);
+        initializeStartingRoom();
+    }
+
+    private Game(String sessionId, String theme, Player player, String lastChoice, boolean running,
+                 HistoryStore history, StoryBackend backend) {
+        this.backend = backend;
+        this.sessionId = sessionId;
+        this.turnLock = new ReentrantLock();
+        this.player = player;
+        this.running = running;
+        this.lastChoice = lastChoice;
         this.adventureTheme = theme;
-        this.history = new ArrayList<>();
+        this.history = history;
+        this.context = StoryContext.fromConfig();
+        this.world = WorldGraph.fromConfig();
         this.lastError = null;
-        initializeStartingRoom();
+        this.prefetcher = defaultPrefetcher();
+        this.streaming = defaultStreaming();
+        this.responseCache = ResponseCache.shared();
+    }
+
+    public static Game fromSnapshot(GameSnapshot snapshot, StoryBackend backend) {
+        Game game = new Game(snapshot.sessionId(), snapshot.theme(),
+                new Player(snapshot.inventory(), snapshot.health(), snapshot.score()),
+                snapshot.lastChoice(), snapshot.running(), HistoryStore.fromConfig(), backend);
+        game.history.addAll(snapshot.history());
+        game.context.seed(game.history.range(game.history.end() - CONTEXT_SEED_ENTRIES, CONTEXT_SEED_ENTRIES));
+        game.currentRoom = snapshot.currentRoom();
+        if (snapshot.world().rooms().isEmpty()) {
+            game.world.start(game.currentRoom);
+        } else {
+            game.world = WorldGraph.restore(snapshot.world(), Config.getInt("grok.world.maxRooms", 500));
+        }
+        return game;
+    }
+
+    // Rebuilds the session from its last journal snapshot by re-applying the logged turns; no backend calls
+    public static Game recover(SessionJournal.Recovery recovery, StoryBackend backend) {
+        Game game = fromSnapshot(recovery.snapshot(), backend);
+        for (JournalRecord record : recovery.records()) {
+            game.replay(record);
+        }
+        return game;
     }
 
-    private void initializeStartingRoom() {
+    // Mirrors updateGameState, including how the world graph was walked, so recovery rebuilds the same graph
+    private void replay(JournalRecord record) {
+        if (record.kind() == JournalRecord.Kind.RESTART) {
+            resetPlayer();
+            clearHistory();
+        } else {
+            lastChoice = record.choice();
+        }
+        record.delta().applyTo(player);
+        addHistory(record.historyEntry());
+        currentRoom = record.room();
+        if (record.kind() == JournalRecord.Kind.RESTART) {
+            world.start(currentRoom);
+        } else if (isRevisitable(record.choice())) {
+            world.revisit(record.choice());
+        } else {
+            enterRoom(record.choice(), currentRoom);
+        }
+    }
+
+    // Every applied turn is appended to the journal; the current state becomes its baseline snapshot
+    public void attachJournal(SessionJournal journal) {
+        turnLock.lock();
+        try {
+            this.journal = journal;
+            if (journal != null) {
+                journal.compact(deferredSnapshot());
+            }
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    public void closeJournal() {
+        turnLock.lock();
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    boolean isJournaled() {
+        turnLock.lock();
+        try {
+            return journal != null;
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    // Releases per-session resources: in-flight work, the journal and the history spill file
+    public void close() {
+        cancelTurn();
+        setSpeculativePrefetch(false);
+        closeJournal();
+        history.close();
+    }
+
+    private void journal(JournalRecord.Kind kind, String choice, StateDelta delta, String historyEntry) {
+        if (journal == null) {
+            return;
+        }
+        CompletableFuture<Void> written = journal.append(kind, choice, currentRoom, delta, historyEntry);
+        if (journal.compactionDue()) {
+            journal.compact(deferredSnapshot());
+        }
+        if (journal.waitsForFsync()) {
+            try {
+                written.join();
+            } catch (CompletionException e) {
+                lastError = "Autosave failed: " + e.getCause().getMessage();
+            }
+        }
+    }
+
+    // Taken under the turn lock so a save never sees a half-applied turn
+    public GameSnapshot snapshot() {
+        turnLock.lock();
+        try {
+            return new GameSnapshot(sessionId, adventureTheme, lastChoice, running, player.getHealth(),
+                    player.getScore(), player.getInventory(), currentRoom, history.toList(), world.state());
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    // For compaction, called under the turn lock: everything but the history is copied now, and the history, most of
+    // which may be spilled to disk, is read back later on the journal's writer thread. Positions are absolute, so
+    // later turns don't change the range; a restart or close clears the log first and the snapshot is skipped.
+    private Supplier<GameSnapshot> deferredSnapshot() {
+        String theme = adventureTheme;
+        String choice = lastChoice;
+        boolean wasRunning = running;
+        int health = player.getHealth();
+        int score = player.getScore();
+        List<String> inventory = List.copyOf(player.getInventory());
+        Room room = currentRoom;
+        WorldGraph.State worldState = world.state();
+        long generation = history.generation();
+        long from = history.start();
+        long to = history.end();
+        return () -> {
+            List<String> entries = history.copy(generation, from, to);
+            return entries == null ? null : new GameSnapshot(sessionId, theme, choice, wasRunning, health, score,
+                    inventory, room, entries, worldState);
+        };
+    }
+
+    private static RoomPrefetcher defaultPrefetcher() {
+        if (!Boolean.parseBoolean(Config.get("grok.prefetch.enabled", "false"))) {
+            return null;
+        }
+        return new RoomPrefetcher(TURN_EXECUTOR, Config.getInt("grok.prefetch.maxOptions", 2));
+    }
+
+    public static CompletableFuture<Game> createAsync(String theme) {
+        return CompletableFuture.supplyAsync(() -> new Game(theme), TURN_EXECUTOR);
+    }
+
+    public static boolean isQuitCommand(String choice) {
+        return matchesCommand(choice, QUIT_COMMAND);
+    }
+
+    public static boolean isRestartCommand(String choice) {
+        return matchesCommand(choice, RESTART_COMMAND);
+    }
+
+    public static boolean isBackCommand(String choice) {
+        return BACK_COMMANDS.contains(choice.trim().toLowerCase());
+    }
+
+    private static boolean isUseCommand(String choice) {
+        return choice.toLowerCase().startsWith("use ");
+    }
+
+    // Accepts both the bare command ("q") and the option label the model offers ("q. Quit")
+    private static boolean matchesCommand(String choice, String command) {
+        String normalized = choice.trim().toLowerCase();
+        return normalized.equals(command) || normalized.startsWith(command + ".");
+    }
+
+    private StateDelta initializeStartingRoom() {
         String prompt = """
             You are Grok, powering a text adventure game in Java 21. The adventure theme is: '%s'.
             This is the starting point. Provide a JSON response with 'description' (initial room description),
@@ -67,14 +267,87 @@ public class Game implements Serializable {
             and 'scoreUpdates' (int, points to add, optional). Keep it immersive.
             """.formatted(adventureTheme);
 
-        currentRoom = fetchRoomFromGrok(prompt);
-        if (currentRoom == null) {
+        RoomUpdate update = requestRoom(prompt, StoryRequest.Kind.START, null);
+        StateDelta delta = StateDelta.NONE;
+        if (update != null) {
+            currentRoom = applyUpdate(update);
+            delta = update.delta();
+        } else {
             currentRoom = new Room(
                     "Something went wrong. You’re in a void. Try quitting and restarting.",
                     new String[]{"q. Quit"}
             );
         }
-        history.add("Started adventure: " + currentRoom.getDescription());
+        addHistory("Started adventure: " + currentRoom.getDescription());
+        world.start(currentRoom);
+        startPrefetch();
+        return delta;
+    }
+
+    private static boolean defaultStreaming() {
+        return Boolean.parseBoolean(Config.get("grok.stream.enabled", "false"));
+    }
+
+    public void setStreaming(boolean enabled) {
+        streaming = enabled;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public synchronized void setSpeculativePrefetch(boolean enabled) {
+        if (enabled && prefetcher == null) {
+            prefetcher = new RoomPrefetcher(TURN_EXECUTOR, Config.getInt("grok.prefetch.maxOptions", 2));
+        } else if (!enabled && prefetcher != null) {
+            prefetcher.cancelAll();
+            prefetcher = null;
+        }
+    }
+
+    public synchronized boolean isSpeculativePrefetch() {
+        return prefetcher != null;
+    }
+
+    private synchronized RoomPrefetcher prefetcher() {
+        return prefetcher;
+    }
+
+    private void startPrefetch() {
+        RoomPrefetcher active = prefetcher();
+        if (active == null) {
+            return;
+        }
+        Map<String, String> prompts = new LinkedHashMap<>();
+        for (String option : currentRoom.getOptions()) {
+            if (!isQuitCommand(option) && !isRestartCommand(option) && world.known(option) == null) {
+                prompts.put(option, optionPrompt(option));
+            }
+        }
+        active.start(currentRoom, prompts, this::generateRoom);
+    }
+
+    private RoomUpdate claimPrefetched(String choice) {
+        RoomPrefetcher active = prefetcher();
+        if (active == null) {
+            return null;
+        }
+        Future<RoomUpdate> prefetched = active.claim(currentRoom, choice);
+        if (prefetched != null) {
+            try {
+                RoomUpdate update = prefetched.get();
+                PrefetchStats.recordHit();
+                return update;
+            } catch (InterruptedException e) {
+                prefetched.cancel(true);
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                // Fall through to a regular request
+            }
+        }
+        PrefetchStats.recordMiss();
+        return null;
     }
 
     public Room getCurrentRoom() {
@@ -85,6 +358,10 @@ public class Game implements Serializable {
         return player.getInventory();
     }
 
+    public Inventory getPlayerItems() {
+        return player.getItems();
+    }
+
     public int getPlayerHealth() {
         return player.getHealth();
     }
@@ -97,168 +374,305 @@ public class Game implements Serializable {
         return adventureTheme;
     }
 
+    // Full copy, reading back anything spilled to disk; prefer getHistoryStore() for paged access
     public List<String> getHistory() {
-        return new ArrayList<>(history);
+        return history.toList();
+    }
+
+    public HistoryStore getHistoryStore() {
+        return history;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getSessionId() {
+        return sessionId;
     }
 
     public String getLastError() {
         return lastError;
     }
 
+    public CompletableFuture<TurnResult> submitTurn(String choice) {
+        return submitTurn(choice, null);
+    }
+
+    // Runs the turn on a virtual thread; turns for the same game are applied one at a time.
+    // In streaming mode descriptionListener receives the new description as it is generated.
+    public CompletableFuture<TurnResult> submitTurn(String choice, Consumer<String> descriptionListener) {
+        CompletableFuture<TurnResult> result = new CompletableFuture<>();
+        inFlightTurns.add(result);
+        Future<?> task = TURN_EXECUTOR.submit(() -> {
+            turnLock.lock();
+            try {
+                if (result.isDone()) {
+                    return;
+                }
+                updateGameState(choice, descriptionListener);
+                if (Thread.currentThread().isInterrupted()) {
+                    result.completeExceptionally(new CancellationException("Turn cancelled"));
+                } else {
+                    result.complete(TurnResult.of(this, choice));
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                turnLock.unlock();
+            }
+        });
+        result.whenComplete((r, t) -> {
+            inFlightTurns.remove(result);
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Cancels every submitted turn that hasn't finished, including ones still waiting for the executor or the
+    // turn lock; their futures complete with CancellationException. Interrupting a running turn's virtual thread
+    // also aborts its blocking socket I/O.
+    public void cancelTurn() {
+        for (CompletableFuture<TurnResult> turn : inFlightTurns) {
+            turn.cancel(true);
+        }
+    }
+
     public void updateGameState(String choice) {
-        if (choice.equals(QUIT_COMMAND)) {
+        updateGameState(choice, null);
+    }
+
+    private void updateGameState(String choice, Consumer<String> descriptionListener) {
+        long started = System.nanoTime();
+        try {
+            playTurn(choice, descriptionListener);
+        } finally {
+            TURN_TIME.record(System.nanoTime() - started);
+        }
+    }
+
+    private void playTurn(String choice, Consumer<String> descriptionListener) {
+        // Ending the process is the client's call; the engine only marks the session finished
+        if (isQuitCommand(choice)) {
             running = false;
-            System.exit(0);
+            RoomPrefetcher active = prefetcher();
+            if (active != null) {
+                active.cancelAll();
+            }
             return;
         }
-        if (choice.equals(RESTART_COMMAND)) {
-            player.adjustHealth(100 - player.getHealth()); // Restore to 100
-            player.addScore(-player.getScore()); // Reset score (assuming negative allowed here)
-            history.clear();
-            initializeStartingRoom();
+        if (isRestartCommand(choice)) {
+            RoomPrefetcher active = prefetcher();
+            if (active != null) {
+                active.cancelAll();
+            }
+            resetPlayer();
+            clearHistory();
+            StateDelta delta = initializeStartingRoom();
+            journal(JournalRecord.Kind.RESTART, choice, delta, history.last());
             return;
         }
 
         lastChoice = choice;
+        if (isRevisitable(choice)) {
+            // Somewhere we've been: no API call, and the room's rewards aren't handed out twice
+            lastError = null;
+            currentRoom = world.revisit(choice);
+            String entry = "You chose: " + choice + "\nResult: " + currentRoom.getDescription();
+            addHistory(entry);
+            journal(JournalRecord.Kind.TURN, choice, StateDelta.NONE, entry);
+            REVISITED_TURNS.increment();
+            startPrefetch();
+            return;
+        }
+
         List<String> currentOptions = Arrays.asList(currentRoom.getOptions());
         String prompt;
+        StoryRequest.Kind kind;
+        RoomUpdate update = null;
 
-        if (choice.toLowerCase().startsWith("use ")) {
+        if (isUseCommand(choice)) {
             String item = choice.substring(4).trim();
-            if (!player.getInventory().contains(item)) {
+            if (!player.hasItem(item)) {
                 lastError = "You don’t have '" + item + "' in your inventory!";
                 return;
             }
-            prompt = """
-                You are Grok, powering a text adventure game in Java 21. The adventure theme is: '%s'.
-                The player is at: '%s'. They chose to use the item: '%s'. Their inventory is: %s, health is: %d, score is: %d.
-                Interpret this action creatively. Return a JSON response with 'description' (new room description),
-                'options' (array of 2-3 options including 'q. Quit'),
-                'inventoryUpdates' (array of items to add or remove, e.g., '-torch'),
-                'healthUpdates' (int, change in health, optional),
-                and 'scoreUpdates' (int, points to add, optional). Keep it immersive.
-                """.formatted(adventureTheme, currentRoom.getDescription(), item, player.getInventory(), player.getHealth(), player.getScore());
+            prompt = turnPrompt(TurnPrompt.USE, item);
+            kind = StoryRequest.Kind.USE;
         } else if (currentOptions.contains(choice)) {
-            prompt = """
-                You are Grok, powering a text adventure game in Java 21. The adventure theme is: '%s'.
-                The player is at: '%s'. They chose the predefined option: '%s'. Their inventory is: %s, health is: %d, score is: %d.
-                Return a JSON response with 'description' (new room description),
-                'options' (array of 2-3 options including 'q. Quit'),
-                'inventoryUpdates' (array of items to add, if any),
-                'healthUpdates' (int, change in health, optional),
-                and 'scoreUpdates' (int, points to add, optional). Keep it immersive.
-                """.formatted(adventureTheme, currentRoom.getDescription(), choice, player.getInventory(), player.getHealth(), player.getScore());
+            prompt = optionPrompt(choice);
+            kind = StoryRequest.Kind.OPTION;
+            update = claimPrefetched(choice);
         } else {
-            prompt = """
-                You are Grok, powering a text adventure game in Java 21. The adventure theme is: '%s'.
-                The player is at: '%s'. They entered a custom action: '%s'. Their inventory is: %s, health is: %d, score is: %d.
-                Interpret this action creatively in the context of the current scene and theme.
-                Return a JSON response with 'description' (new room description based on the action),
-                'options' (array of 2-3 options including 'q. Quit'),
-                'inventoryUpdates' (array of items to add, if any),
-                'healthUpdates' (int, change in health, optional),
-                and 'scoreUpdates' (int, points to add, optional). Keep it immersive.
-                """.formatted(adventureTheme, currentRoom.getDescription(), choice, player.getInventory(), player.getHealth(), player.getScore());
+            prompt = turnPrompt(TurnPrompt.CUSTOM, choice);
+            kind = StoryRequest.Kind.CUSTOM;
         }
 
         lastError = null;
-        Room nextRoom = fetchRoomFromGrok(prompt);
-        if (nextRoom != null) {
-            history.add("You chose: " + choice + "\nResult: " + nextRoom.getDescription());
+        if (update == null && !Thread.currentThread().isInterrupted()) {
+            update = requestRoom(prompt, kind, descriptionListener);
+        }
+        if (update != null && !Thread.currentThread().isInterrupted()) {
+            long applyStarted = System.nanoTime();
+            Room nextRoom = applyUpdate(update);
+            String entry = "You chose: " + choice + "\nResult: " + nextRoom.getDescription();
+            addHistory(entry);
             currentRoom = nextRoom;
+            enterRoom(choice, nextRoom);
+            journal(JournalRecord.Kind.TURN, choice, update.delta(), entry);
+            APPLY_TIME.record(System.nanoTime() - applyStarted);
+            GENERATED_TURNS.increment();
+            startPrefetch();
+        } else if (update == null) {
+            FAILED_TURNS.increment();
         }
     }
 
-    private Room fetchRoomFromGrok(String prompt) {
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
-            HttpPost post = new HttpPost(API_URL);
-            post.setHeader("Authorization", "Bearer " + API_KEY);
-            post.setHeader("Content-Type", "application/json");
-
-            JSONObject requestBody = new JSONObject();
-            requestBody.put("model", "grok-2-latest");
-            requestBody.put("messages", new JSONArray()
-                    .put(new JSONObject().put("role", "user").put("content", prompt)));
-            requestBody.put("max_tokens", 200);
-
-            post.setEntity(new StringEntity(requestBody.toString()));
-            try (CloseableHttpResponse response = client.execute(post)) {
-                int statusCode = response.getCode();
-                String responseString = EntityUtils.toString(response.getEntity());
+    // Using an item changes the world, so it always asks the model
+    private boolean isRevisitable(String choice) {
+        return !isUseCommand(choice) && world.known(choice) != null;
+    }
 
-                if (statusCode != 200 || !responseString.trim().startsWith("{")) {
-                    lastError = "API returned invalid response (Status: " + statusCode + ")";
-                    return null;
-                }
+    // Records a freshly generated room; a death room is left off the graph so it can't be walked back into
+    private void enterRoom(String choice, Room room) {
+        if (player.getHealth() <= 0) {
+            world.leave();
+        } else {
+            world.arrive(choice, room, !isUseCommand(choice));
+        }
+    }
 
-                JSONObject jsonResponse = new JSONObject(responseString);
-                String content = jsonResponse.getJSONArray("choices")
-                        .getJSONObject(0)
-                        .getJSONObject("message")
-                        .getString("content");
+    private void resetPlayer() {
+        player.adjustHealth(100 - player.getHealth()); // Restore to 100
+        player.addScore(-player.getScore()); // Reset score (assuming negative allowed here)
+    }
 
-                String cleanedContent = content.replace("```json", "").replace("```", "").trim();
-                JSONObject grokData = new JSONObject(cleanedContent);
+    private String optionPrompt(String choice) {
+        return turnPrompt(TurnPrompt.OPTION, choice);
+    }
 
-                String description = grokData.getString("description");
-                JSONArray optionsArray = grokData.getJSONArray("options");
-                String[] options = new String[optionsArray.length()];
-                for (int i = 0; i < optionsArray.length(); i++) {
-                    options[i] = optionsArray.getString(i);
-                }
+    // Fills a turn template, fitting room, inventory and story context into the configured token budget.
+    // Both passes render into the session's reused buffer; only the finished prompt is copied out.
+    private String turnPrompt(TurnPrompt prompt, String action) {
+        long started = System.nanoTime();
+        int health = player.getHealth();
+        int score = player.getScore();
+        StoryContext.Rendered rendered = context.render(prompt.fixedLength(adventureTheme, action, health, score),
+                currentRoom.getDescription(), player.getItems());
+        StringBuilder buffer = promptBuffer;
+        buffer.setLength(0);
+        prompt.render(buffer, adventureTheme, rendered.room(), action, rendered.inventory(), health, score,
+                rendered.story());
+        String text = buffer.toString();
+        PROMPT_TIME.record(System.nanoTime() - started);
+        return text;
+    }
 
-                // Inventory updates
-                JSONArray inventoryUpdates = grokData.optJSONArray("inventoryUpdates");
-                if (inventoryUpdates != null) {
-                    for (int i = 0; i < inventoryUpdates.length(); i++) {
-                        String update = inventoryUpdates.getString(i);
-                        if (update.startsWith("-")) {
-                            player.removeItem(update.substring(1));
-                        } else {
-                            player.addItem(update);
-                        }
-                    }
-                }
+    private void addHistory(String entry) {
+        history.add(entry);
+        context.record(entry);
+    }
 
-                // Health updates
-                if (grokData.has("healthUpdates")) {
-                    int healthDelta = grokData.getInt("healthUpdates");
-                    player.adjustHealth(healthDelta);
-                    if (player.getHealth() <= 0) {
-                        return new Room("You’ve succumbed to your wounds. Game Over.", new String[]{"r. Restart", "q. Quit"});
-                    }
-                }
+    private void clearHistory() {
+        history.clear();
+        context.reset();
+    }
 
-                // Score updates
-                if (grokData.has("scoreUpdates")) {
-                    int scorePoints = grokData.getInt("scoreUpdates");
-                    player.addScore(scorePoints);
-                }
+    private Room applyUpdate(RoomUpdate update) {
+        StateDelta delta = update.delta();
+        delta.applyTo(player);
+        if (delta.healthDelta() != 0 && player.getHealth() <= 0) {
+            return new Room("You’ve succumbed to your wounds. Game Over.", new String[]{"r. Restart", "q. Quit"});
+        }
+        return update.room();
+    }
 
-                return new Room(description, options);
-            }
+    private RoomUpdate requestRoom(String prompt, StoryRequest.Kind kind, Consumer<String> descriptionListener) {
+        try {
+            return fetchRoom(prompt, kind, streaming ? descriptionListener : null);
+        } catch (ApiException e) {
+            lastError = e.getMessage();
+            countError(e);
+            return null;
         } catch (Exception e) {
             lastError = "API call failed: " + e.getMessage();
+            countError(e);
             return null;
         }
     }
 
+    // Prefetched rooms are always behind an offered option
+    private RoomUpdate generateRoom(String prompt) throws IOException {
+        return fetchRoom(prompt, StoryRequest.Kind.OPTION, null);
+    }
+
+    // Generates the next room without touching the player; the caller decides when to apply the delta
+    private RoomUpdate fetchRoom(String prompt, StoryRequest.Kind kind, Consumer<String> descriptionListener)
+            throws IOException {
+        // Cache hits skip the backend; the delta is still applied by the caller like any fresh room
+        String cacheKey = responseCache == null ? null : ResponseCache.key(prompt);
+        if (cacheKey != null) {
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                RoomUpdate update = parse(cached);
+                if (descriptionListener != null) {
+                    descriptionListener.accept(update.room().getDescription());
+                }
+                return update;
+            }
+        }
+
+        Consumer<String> contentListener = null;
+        if (descriptionListener != null) {
+            contentListener = new DescriptionStreamExtractor(descriptionListener)::accept;
+        }
+        String content = backend.generate(new StoryRequest(sessionId, prompt, kind), contentListener);
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Turn cancelled");
+        }
+        RoomUpdate update = parse(content);
+        // An offline room served during an outage must not keep answering this prompt once the API is back
+        if (cacheKey != null && !backend.isFallback(content)) {
+            responseCache.put(cacheKey, content);
+        }
+        return update;
+    }
+
+    private static RoomUpdate parse(String content) throws IOException {
+        long started = System.nanoTime();
+        RoomUpdate update = RoomParser.parseRoom(content);
+        PARSE_TIME.record(System.nanoTime() - started);
+        return update;
+    }
+
+    // By HTTP status for API errors, otherwise by exception class
+    private static void countError(Exception e) {
+        String type = e instanceof ApiException api ? "http_" + api.getStatusCode()
+                : e instanceof InterruptedIOException ? "cancelled"
+                : e.getClass().getSimpleName();
+        Metrics.counter("grok_turn_errors_total", "type", type).increment();
+    }
+
     public void saveGame(File file) throws IOException {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
-            out.writeObject(this);
+        long started = System.nanoTime();
+        try {
+            SaveCodec.save(snapshot(), file.toPath(), SaveCodec.compressByDefault());
+            SAVE_TIME.record(System.nanoTime() - started);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Save to {} failed", file.getAbsolutePath(), e);
             throw new IOException("Failed to save to " + file.getAbsolutePath() + ": " + e.getMessage(), e);
         }
     }
 
+    // Old Java-serialization .dat files are migrated transparently; the next save rewrites them in the new format
     public static Game loadGame(File file) {
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
-            return (Game) in.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
-            System.err.println("Load failed from " + file.getAbsolutePath() + ": " + e.getMessage());
+        try {
+            return fromSnapshot(SaveCodec.load(file.toPath()), StoryBackends.shared());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Load from {} failed", file.getAbsolutePath(), e);
             return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package com.explorer.game;
+
+import java.util.List;
+
+// Everything a save needs to rebuild a Game; transient runtime wiring such as the backend is not included
+public record GameSnapshot(
+        String sessionId,
+        String theme,
+        String lastChoice,
+        boolean running,
+        int health,
+        int score,
+        List<String> inventory,
+        Room currentRoom,
+        List<String> history,
+        WorldGraph.State world) {
+
+    public GameSnapshot {
+        inventory = List.copyOf(inventory);
+        history = List.copyOf(history);
+        world = world == null ? WorldGraph.State.EMPTY : world;
+    }
+
+    // Saves from before the world graph existed
+    public GameSnapshot(String sessionId, String theme, String lastChoice, boolean running, int health, int score,
+                        List<String> inventory, Room currentRoom, List<String> history) {
+        this(sessionId, theme, lastChoice, running, health, score, inventory, currentRoom, history, WorldGraph.State.EMPTY);
+    }
+}
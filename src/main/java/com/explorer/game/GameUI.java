@@ -1,22 +1,65 @@
 package com.explorer.game;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class GameUI {
     private JFrame frame;
     private JTextArea descriptionArea;
     private JPanel optionsPanel;
+    private JPanel optionsButtonsPanel;
     private JList<String> inventoryList;
+    private final DefaultListModel<String> inventoryModel = new DefaultListModel<>();
+    private final List<JButton> optionButtons = new ArrayList<>();
+    private JLabel healthLabel;
+    private JLabel scoreLabel;
     private JTextField inputField;
+    private JButton submitButton;
+    private JButton saveButton;
+    private JProgressBar turnProgress;
     private JLabel pictureLabel;
     private JTextArea historyArea;
     private JPanel historyPanel;
     private JButton historyToggleButton;
     private JButton fullscreenToggleButton;
     private Game game;
+    private CompletableFuture<TurnResult> pendingTurn;
+    // Absolute history position already shown, and the document length of each shown entry (oldest first)
+    private long historyShown = -1;
+    private long historyGeneration;
+    private final ArrayDeque<Integer> historyEntryLengths = new ArrayDeque<>();
+    private static final int HISTORY_VIEW_LIMIT = 500;
+    private static final String HISTORY_SEPARATOR = "\n\n";
+    // What the widgets currently show, so a render only touches what changed
+    private String shownDescription;
+    private int shownHealth = Integer.MIN_VALUE;
+    private int shownScore = Integer.MIN_VALUE;
+    // Null when grok.scene.enabled=false. Only the latest request may set the picture, so a stale one is never shown.
+    private final SceneImages sceneImages = SceneImages.shared();
+    private CompletableFuture<BufferedImage> pendingScene;
+    private String sceneRequested;
+    private Dimension sceneRequestedSize;
+    private static final int SCENE_HEIGHT = 140;
+    private static final Logger log = LoggerFactory.getLogger(GameUI.class);
+    private static final LatencyHistogram RENDER_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "render");
 
     public GameUI(Game game) {
         this.game = game;
@@ -26,19 +69,50 @@ public class GameUI {
 
     public static Game showStartupDialog() {
         JDialog dialog = new JDialog((Frame) null, "Grok’s Infinite Adventures", true);
-        dialog.setLayout(new GridLayout(2, 1, 10, 10));
-        dialog.setSize(300, 150);
+        Path journalDir = SessionJournal.directoryFromConfig();
+        Optional<String> lastSession = SessionJournal.latestSession(journalDir);
+        dialog.setLayout(new GridLayout(lastSession.isPresent() ? 3 : 2, 1, 10, 10));
+        dialog.setSize(300, lastSession.isPresent() ? 200 : 150);
         dialog.setLocationRelativeTo(null);
 
+        JButton resumeButton = new JButton("Resume Last Session");
         JButton newGameButton = new JButton("New Game");
         JButton loadGameButton = new JButton("Load Game");
         Game[] selectedGame = {null};
 
+        resumeButton.addActionListener(e -> {
+            String sessionId = lastSession.orElseThrow();
+            try {
+                SessionJournal.Recovery recovery = SessionJournal.recover(journalDir, sessionId);
+                Game game = Game.recover(recovery, StoryBackends.shared());
+                game.attachJournal(SessionJournal.resumeFromConfig(sessionId, recovery));
+                selectedGame[0] = game;
+                dialog.dispose();
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Failed to resume session {}", sessionId, ex);
+                JOptionPane.showMessageDialog(dialog, "Failed to resume session: " + ex.getMessage(), "Resume Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+
         newGameButton.addActionListener(e -> {
             String theme = showThemeSelectionDialog();
             if (theme != null) {
-                selectedGame[0] = new Game(theme);
-                dialog.dispose();
+                // The opening room comes from the API, so build the game off the EDT
+                newGameButton.setEnabled(false);
+                loadGameButton.setEnabled(false);
+                newGameButton.setText("Generating your adventure...");
+                Game.createAsync(theme).whenComplete((game, error) -> SwingUtilities.invokeLater(() -> {
+                    if (game != null) {
+                        game.attachJournal(SessionJournal.openFromConfig(game.getSessionId()));
+                        selectedGame[0] = game;
+                        dialog.dispose();
+                    } else {
+                        newGameButton.setText("New Game");
+                        newGameButton.setEnabled(true);
+                        loadGameButton.setEnabled(true);
+                        JOptionPane.showMessageDialog(dialog, "Failed to start a new game: " + error.getMessage(), "New Game Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
             }
         });
 
@@ -52,14 +126,18 @@ public class GameUI {
                 File fileToLoad = fileChooser.getSelectedFile();
                 Game loadedGame = Game.loadGame(fileToLoad);
                 if (loadedGame != null) {
+                    loadedGame.attachJournal(SessionJournal.openFromConfig(loadedGame.getSessionId()));
                     selectedGame[0] = loadedGame;
                     dialog.dispose();
                 } else {
-                    JOptionPane.showMessageDialog(dialog, "Failed to load game from " + fileToLoad.getAbsolutePath() + "\nCheck console for details.", "Load Error", JOptionPane.WARNING_MESSAGE);
+                    JOptionPane.showMessageDialog(dialog, "Failed to load game from " + fileToLoad.getAbsolutePath() + "\nCheck the log for details.", "Load Error", JOptionPane.WARNING_MESSAGE);
                 }
             }
         });
 
+        if (lastSession.isPresent()) {
+            dialog.add(resumeButton);
+        }
         dialog.add(newGameButton);
         dialog.add(loadGameButton);
 
@@ -130,8 +208,17 @@ public class GameUI {
         JLabel pictureTitle = new JLabel("Scene Image:");
         pictureTitle.setFont(new Font("SansSerif", Font.BOLD, 12));
         picturePanel.add(pictureTitle, BorderLayout.NORTH);
-        pictureLabel = new JLabel("Image coming soon...");
+        pictureLabel = new JLabel(sceneImages == null ? "Scene images are off" : "Painting the scene...");
         pictureLabel.setHorizontalAlignment(JLabel.CENTER);
+        pictureLabel.setPreferredSize(new Dimension(560, SCENE_HEIGHT));
+        pictureLabel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                if (shownDescription != null) {
+                    requestScene(shownDescription);
+                }
+            }
+        });
         picturePanel.add(pictureLabel, BorderLayout.CENTER);
         picturePanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
         frame.add(picturePanel, BorderLayout.NORTH);
@@ -154,7 +241,7 @@ public class GameUI {
         JLabel optionsTitle = new JLabel("Suggested Options:");
         optionsTitle.setFont(new Font("SansSerif", Font.BOLD, 12));
         optionsPanel.add(optionsTitle, BorderLayout.NORTH);
-        JPanel optionsButtonsPanel = new JPanel();
+        optionsButtonsPanel = new JPanel();
         optionsButtonsPanel.setLayout(new BoxLayout(optionsButtonsPanel, BoxLayout.Y_AXIS));
         optionsPanel.add(new JScrollPane(optionsButtonsPanel), BorderLayout.CENTER);
         optionsPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
@@ -168,7 +255,9 @@ public class GameUI {
         JLabel inventoryTitle = new JLabel("Inventory:");
         inventoryTitle.setFont(new Font("SansSerif", Font.BOLD, 12));
         inventoryPanel.add(inventoryTitle, BorderLayout.NORTH);
-        inventoryList = new JList<>();
+        inventoryList = new JList<>(inventoryModel);
+        // A fixed cell size keeps the list from re-measuring every row when one changes
+        inventoryList.setPrototypeCellValue("A long inventory item x99");
         inventoryPanel.add(new JScrollPane(inventoryList), BorderLayout.CENTER);
         inventoryPanel.setPreferredSize(new Dimension(150, 200));
         inventoryPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
@@ -176,9 +265,9 @@ public class GameUI {
 
         // Stats section
         JPanel statsPanel = new JPanel(new GridLayout(2, 1));
-        JLabel healthLabel = new JLabel("Health: 100");
+        healthLabel = new JLabel("Health: 100");
         healthLabel.setFont(new Font("SansSerif", Font.PLAIN, 12));
-        JLabel scoreLabel = new JLabel("Score: 0");
+        scoreLabel = new JLabel("Score: 0");
         scoreLabel.setFont(new Font("SansSerif", Font.PLAIN, 12));
         statsPanel.add(healthLabel);
         statsPanel.add(scoreLabel);
@@ -217,7 +306,7 @@ public class GameUI {
         fullscreenToggleButton.addActionListener(e -> toggleFullscreen());
         buttonPanel.add(fullscreenToggleButton);
 
-        JButton saveButton = new JButton("Save");
+        saveButton = new JButton("Save");
         saveButton.setToolTipText("Save your current game progress");
         saveButton.addActionListener(e -> saveGame());
         buttonPanel.add(saveButton);
@@ -235,13 +324,19 @@ public class GameUI {
         inputPanel.add(inputLabel);
         inputField = new JTextField(20);
         inputField.setToolTipText("Type a custom action here (e.g., 'use torch')");
-        JButton submitButton = new JButton("Submit");
+        submitButton = new JButton("Submit");
         submitButton.setToolTipText("Submit your custom action");
         inputPanel.add(inputField);
         inputPanel.add(submitButton);
-        JLabel tipLabel = new JLabel("(e.g., 'use torch' to use an item, 'look around', or anything!)");
+        JLabel tipLabel = new JLabel("(e.g., 'use torch' to use an item, 'go back', 'look around', or anything!)");
         tipLabel.setFont(new Font("SansSerif", Font.ITALIC, 10));
         inputPanel.add(tipLabel);
+        turnProgress = new JProgressBar();
+        turnProgress.setIndeterminate(true);
+        turnProgress.setStringPainted(true);
+        turnProgress.setString("Grok is thinking...");
+        turnProgress.setVisible(false);
+        inputPanel.add(turnProgress);
         southPanel.add(inputPanel, BorderLayout.SOUTH);
 
         frame.add(southPanel, BorderLayout.SOUTH);
@@ -252,52 +347,273 @@ public class GameUI {
         frame.setVisible(true);
     }
 
+    // Patches the widgets to match the game: reuses option buttons, applies per-row inventory changes and
+    // appends new history, so EDT time per turn doesn't grow with the length of the adventure
     private void updateUI() {
-        descriptionArea.setText(game.getCurrentRoom().getDescription());
-        pictureLabel.setText("Image coming soon...");
+        long started = System.nanoTime();
+        Room room = game.getCurrentRoom();
+        if (!room.getDescription().equals(shownDescription)) {
+            descriptionArea.setText(room.getDescription());
+            shownDescription = room.getDescription();
+        }
+        requestScene(room.getDescription());
+        updateOptions(room.getOptions());
+        updateInventory(game.getPlayerItems());
+        appendNewHistory();
+
+        int health = game.getPlayerHealth();
+        if (health != shownHealth) {
+            healthLabel.setText("Health: " + health);
+            healthLabel.setForeground(health <= 0 ? Color.RED : Color.BLACK);
+            shownHealth = health;
+        }
+        int score = game.getPlayerScore();
+        if (score != shownScore) {
+            scoreLabel.setText("Score: " + score);
+            shownScore = score;
+        }
+        RENDER_TIME.record(System.nanoTime() - started);
+    }
+
+    // EDT time spent applying each turn's result to the window
+    public static LatencyHistogram renderTime() {
+        return RENDER_TIME;
+    }
 
-        JPanel optionsButtonsPanel = (JPanel) ((JScrollPane) optionsPanel.getComponent(1)).getViewport().getView();
-        optionsButtonsPanel.removeAll();
-        for (String option : game.getCurrentRoom().getOptions()) {
-            JButton button = new JButton(option);
+    private void updateOptions(String[] options) {
+        boolean resized = optionButtons.size() != options.length;
+        while (optionButtons.size() < options.length) {
+            JButton button = new JButton();
             button.setToolTipText("Click to choose this option");
-            button.addActionListener(e -> {
-                game.updateGameState(option);
-                updateUI();
-            });
+            button.addActionListener(e -> playTurn(e.getActionCommand()));
+            optionButtons.add(button);
             optionsButtonsPanel.add(button);
         }
+        while (optionButtons.size() > options.length) {
+            optionsButtonsPanel.remove(optionButtons.remove(optionButtons.size() - 1));
+        }
+        for (int i = 0; i < options.length; i++) {
+            JButton button = optionButtons.get(i);
+            if (!options[i].equals(button.getActionCommand())) {
+                button.setText(options[i]); // Revalidates the button itself
+                button.setActionCommand(options[i]);
+            }
+        }
+        if (resized) {
+            optionsButtonsPanel.revalidate();
+            optionsButtonsPanel.repaint();
+        }
+    }
 
-        inventoryList.setListData(game.getPlayerInventory().toArray(new String[0]));
-        historyArea.setText(String.join("\n\n", game.getHistory()));
-
-        // Update stats with color feedback
-        JPanel westPanel = (JPanel) frame.getContentPane().getComponent(3); // WEST is 4th component
-        JPanel statsPanel = (JPanel) westPanel.getComponent(1); // SOUTH component
-        JLabel healthLabel = (JLabel) statsPanel.getComponent(0);
-        healthLabel.setText("Health: " + game.getPlayerHealth());
-        healthLabel.setForeground(game.getPlayerHealth() <= 0 ? Color.RED : Color.BLACK);
-        ((JLabel) statsPanel.getComponent(1)).setText("Score: " + game.getPlayerScore());
-
-        optionsButtonsPanel.revalidate();
-        optionsButtonsPanel.repaint();
-        optionsPanel.revalidate();
-        optionsPanel.repaint();
-        frame.revalidate();
-        frame.repaint();
+    // Stacks keep their first-acquired order, so a turn's changes are a short run between an unchanged head
+    // and tail; only that run is replaced, firing per-row events instead of a whole-list reset
+    private void updateInventory(Inventory inventory) {
+        List<String> next = new ArrayList<>(inventory.stacks());
+        inventory.forEachStack((item, quantity) -> next.add(quantity > 1 ? item + " x" + quantity : item));
+        int size = inventoryModel.size();
+        int head = 0;
+        while (head < size && head < next.size() && inventoryModel.get(head).equals(next.get(head))) {
+            head++;
+        }
+        int tail = 0;
+        while (tail < size - head && tail < next.size() - head
+                && inventoryModel.get(size - 1 - tail).equals(next.get(next.size() - 1 - tail))) {
+            tail++;
+        }
+        int oldEnd = size - tail;
+        int newEnd = next.size() - tail;
+        int i = head;
+        for (; i < oldEnd && i < newEnd; i++) {
+            inventoryModel.set(i, next.get(i));
+        }
+        if (i < oldEnd) {
+            inventoryModel.removeRange(i, oldEnd - 1);
+        }
+        for (; i < newEnd; i++) {
+            inventoryModel.add(i, next.get(i));
+        }
     }
 
     private void handlePlayerInput() {
         String input = inputField.getText().trim();
         if (!input.isEmpty()) {
-            game.updateGameState(input);
-            String error = game.getLastError();
-            if (error != null) {
-                JOptionPane.showMessageDialog(frame, "Error: " + error, "Game Issue", JOptionPane.ERROR_MESSAGE);
-            }
             inputField.setText("");
-            updateUI();
+            playTurn(input);
+        }
+    }
+
+    // Turns run off the EDT; only quit and restart may interrupt a turn that is still in flight
+    private void playTurn(String choice) {
+        if (Game.isQuitCommand(choice)) {
+            quit();
+            return;
+        }
+        if (pendingTurn != null) {
+            if (!isCommand(choice)) {
+                return;
+            }
+            cancelPendingTurn();
+        }
+        DescriptionStream stream = new DescriptionStream();
+        CompletableFuture<TurnResult> turn = game.submitTurn(choice, stream);
+        stream.turn = turn;
+        pendingTurn = turn;
+        setTurnInProgress(true);
+        turn.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> completeTurn(turn, result, error)));
+    }
+
+    private void completeTurn(CompletableFuture<TurnResult> turn, TurnResult result, Throwable error) {
+        if (turn != pendingTurn) {
+            return; // Superseded by a restart, quit or load
+        }
+        pendingTurn = null;
+        setTurnInProgress(false);
+        if (error != null) {
+            if (!(error instanceof CancellationException)) {
+                JOptionPane.showMessageDialog(frame, "Error: " + error.getMessage(), "Game Issue", JOptionPane.ERROR_MESSAGE);
+            }
+        } else if (result.failed()) {
+            JOptionPane.showMessageDialog(frame, "Error: " + result.error(), "Game Issue", JOptionPane.ERROR_MESSAGE);
+        }
+        updateUI();
+    }
+
+    // Asks for the room's picture at the label's size; the EDT only swaps in the icon once it is ready
+    private void requestScene(String description) {
+        if (sceneImages == null) {
+            return;
+        }
+        Dimension size = pictureLabel.getWidth() > 0 ? pictureLabel.getSize() : pictureLabel.getPreferredSize();
+        if (description.equals(sceneRequested) && size.equals(sceneRequestedSize)) {
+            return;
+        }
+        if (pendingScene != null) {
+            pendingScene.cancel(false);
+        }
+        sceneRequested = description;
+        sceneRequestedSize = size;
+        CompletableFuture<BufferedImage> scene = sceneImages.request(description, size.width, size.height);
+        pendingScene = scene;
+        if (scene.isDone() && !scene.isCompletedExceptionally()) {
+            showScene(scene, scene.join(), null);
+        } else {
+            scene.whenComplete((image, error) -> SwingUtilities.invokeLater(() -> showScene(scene, image, error)));
+        }
+    }
+
+    private void showScene(CompletableFuture<BufferedImage> scene, BufferedImage image, Throwable error) {
+        if (scene != pendingScene) {
+            return;
+        }
+        pendingScene = null;
+        if (image != null) {
+            pictureLabel.setText(null);
+            pictureLabel.setIcon(new ImageIcon(image));
+        } else if (!(error instanceof CancellationException)) {
+            log.warn("Failed to paint the scene", error);
+            pictureLabel.setIcon(null);
+            pictureLabel.setText("No picture for this scene");
+        }
+    }
+
+    // Coalesces streamed description text so the EDT sees at most one queued update per turn
+    private final class DescriptionStream implements Consumer<String> {
+        private final StringBuilder buffer = new StringBuilder();
+        private boolean flushScheduled;
+        private boolean started;
+        private CompletableFuture<TurnResult> turn;
+
+        @Override
+        public void accept(String text) {
+            synchronized (buffer) {
+                buffer.append(text);
+                if (flushScheduled) {
+                    return;
+                }
+                flushScheduled = true;
+            }
+            SwingUtilities.invokeLater(this::flush);
+        }
+
+        private void flush() {
+            String text;
+            synchronized (buffer) {
+                text = buffer.toString();
+                buffer.setLength(0);
+                flushScheduled = false;
+            }
+            if (turn != pendingTurn) {
+                return;
+            }
+            if (!started) {
+                descriptionArea.setText("");
+                shownDescription = null;
+                started = true;
+            }
+            descriptionArea.append(text);
+        }
+    }
+
+    // The journal is flushed by Game.close(), so quitting never loses the last turn
+    private void quit() {
+        cancelPendingTurn();
+        game.close();
+        frame.dispose();
+        System.exit(0);
+    }
+
+    private void cancelPendingTurn() {
+        if (pendingTurn != null) {
+            pendingTurn.cancel(true);
+            pendingTurn = null;
+            setTurnInProgress(false);
+        }
+    }
+
+    private void setTurnInProgress(boolean inProgress) {
+        turnProgress.setVisible(inProgress);
+        inputField.setEnabled(!inProgress);
+        submitButton.setEnabled(!inProgress);
+        saveButton.setEnabled(!inProgress);
+        for (JButton button : optionButtons) {
+            button.setEnabled(!inProgress || isCommand(button.getActionCommand()));
+        }
+        frame.setCursor(inProgress ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    private static boolean isCommand(String choice) {
+        return Game.isQuitCommand(choice) || Game.isRestartCommand(choice);
+    }
+
+    // Appends only entries the view hasn't shown yet; the view keeps the most recent HISTORY_VIEW_LIMIT entries
+    private void appendNewHistory() {
+        HistoryStore history = game.getHistoryStore();
+        long end = history.end();
+        long from = Math.max(historyShown, end - HISTORY_VIEW_LIMIT);
+        long generation = history.generation();
+        if (generation != historyGeneration || historyShown < history.start() || historyShown > end) {
+            historyGeneration = generation;
+            historyArea.setText("");
+            historyEntryLengths.clear();
+            from = Math.max(history.start(), end - HISTORY_VIEW_LIMIT);
+        }
+        Document document = historyArea.getDocument();
+        try {
+            for (String entry : history.range(from, (int) (end - from))) {
+                String text = historyEntryLengths.isEmpty() ? entry : HISTORY_SEPARATOR + entry;
+                document.insertString(document.getLength(), text, null);
+                historyEntryLengths.addLast(text.length());
+            }
+            while (historyEntryLengths.size() > HISTORY_VIEW_LIMIT) {
+                int removed = historyEntryLengths.removeFirst();
+                int separator = historyEntryLengths.isEmpty() ? 0 : HISTORY_SEPARATOR.length();
+                document.remove(0, removed + separator);
+                historyEntryLengths.addFirst(historyEntryLengths.removeFirst() - separator);
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
         }
+        historyShown = end;
     }
 
     private void toggleHistory() {
@@ -338,8 +654,7 @@ public class GameUI {
                 game.saveGame(fileToSave);
                 JOptionPane.showMessageDialog(frame, "Game saved successfully to " + fileToSave.getAbsolutePath(), "Save", JOptionPane.INFORMATION_MESSAGE);
             } catch (IOException e) {
-                System.err.println("Save error: " + e.getMessage());
-                JOptionPane.showMessageDialog(frame, "Failed to save game: " + e.getMessage() + "\nCheck console for details.", "Save Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(frame, "Failed to save game: " + e.getMessage() + "\nCheck the log for details.", "Save Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
@@ -354,11 +669,15 @@ public class GameUI {
             File fileToLoad = fileChooser.getSelectedFile();
             Game loadedGame = Game.loadGame(fileToLoad);
             if (loadedGame != null) {
+                cancelPendingTurn();
+                game.close();
+                historyShown = -1;
+                loadedGame.attachJournal(SessionJournal.openFromConfig(loadedGame.getSessionId()));
                 this.game = loadedGame;
                 updateUI();
                 JOptionPane.showMessageDialog(frame, "Game loaded successfully from " + fileToLoad.getAbsolutePath(), "Load", JOptionPane.INFORMATION_MESSAGE);
             } else {
-                JOptionPane.showMessageDialog(frame, "Failed to load game from " + fileToLoad.getAbsolutePath() + "\nCheck console for details.", "Load Error", JOptionPane.WARNING_MESSAGE);
+                JOptionPane.showMessageDialog(frame, "Failed to load game from " + fileToLoad.getAbsolutePath() + "\nCheck the log for details.", "Load Error", JOptionPane.WARNING_MESSAGE);
             }
         }
     }
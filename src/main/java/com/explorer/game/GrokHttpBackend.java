@@ -0,0 +1,291 @@
+package com.explorer.game;
+
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Chat-completions over HTTP; cancel by interrupting the calling (virtual) thread. TurnPolicy picks the model,
+// max_tokens and temperature for each request's kind; a reply cut off at max_tokens is continued, not regenerated.
+public class GrokHttpBackend implements BatchStoryBackend {
+    public static final String DEFAULT_URL = "https://api.x.ai/v1/chat/completions";
+    public static final String DEFAULT_MODEL = "grok-2-latest";
+
+    // From response headers to the last byte; the stream variant includes the model generating
+    private static final LatencyHistogram BODY_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "body");
+    private static final LatencyHistogram STREAM_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "stream");
+    private static final LongAdder PROMPT_TOKENS = Metrics.counter("grok_tokens_total", "kind", "prompt");
+    private static final LongAdder COMPLETION_TOKENS = Metrics.counter("grok_tokens_total", "kind", "completion");
+    private static final String CONTINUE = "Your reply was cut off. Continue it exactly where it stopped, "
+            + "without repeating anything or adding commentary.";
+
+    // Token counts are estimated locally when the response carries no usage block (e.g. most streams)
+    private record Reply(String content, int promptTokens, int completionTokens, boolean truncated) {
+    }
+
+    private final CloseableHttpClient httpClient;
+    private final String url;
+    private final String apiKey;
+    private final TurnPolicy policy;
+
+    public GrokHttpBackend(CloseableHttpClient httpClient, String url, String apiKey, String model, int maxTokens) {
+        this(httpClient, url, apiKey, TurnPolicy.fixed(model, maxTokens));
+    }
+
+    public GrokHttpBackend(CloseableHttpClient httpClient, String url, String apiKey, TurnPolicy policy) {
+        this.httpClient = httpClient;
+        this.url = url;
+        this.apiKey = apiKey;
+        this.policy = policy;
+    }
+
+    public static GrokHttpBackend fromConfig() {
+        String apiKey = Config.get("grok.api.key", null);
+        if (apiKey == null) {
+            throw new IllegalStateException("Grok API key not set in application.properties");
+        }
+        return new GrokHttpBackend(HttpClientProvider.shared(),
+                Config.get("grok.api.url", DEFAULT_URL),
+                apiKey,
+                TurnPolicy.fromConfig());
+    }
+
+    public TurnPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public String generate(StoryRequest request, Consumer<String> contentListener) throws IOException {
+        TurnPolicy.Choice choice = policy.choose(request.kind());
+        long started = System.nanoTime();
+        ChatRequestEntity.Message prompt = new ChatRequestEntity.Message("user", request.prompt());
+        Reply reply = complete(List.of(prompt), choice, choice.maxTokens(), contentListener);
+        String content = reply.content();
+        int promptTokens = reply.promptTokens();
+        int completionTokens = reply.completionTokens();
+        int firstCallTokens = promptTokens + completionTokens;
+        int truncations = 0;
+        int continuations = 0;
+        // Only the missing tail is generated; the cut-off part is sent back as the assistant's own words
+        while (reply.truncated()) {
+            truncations++;
+            if (continuations == policy.maxContinuations()) {
+                break;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Turn cancelled");
+            }
+            continuations++;
+            reply = complete(List.of(prompt, new ChatRequestEntity.Message("assistant", content),
+                    new ChatRequestEntity.Message("user", CONTINUE)), choice, choice.maxTokens(), contentListener);
+            content = continueWith(content, reply.content());
+            promptTokens += reply.promptTokens();
+            completionTokens += reply.completionTokens();
+        }
+        policy.record(request.kind(), choice.model(), System.nanoTime() - started, promptTokens, completionTokens,
+                truncations, continuations);
+        if (continuations > 0) {
+            policy.continued(continuations, promptTokens + completionTokens - firstCallTokens);
+        }
+        return content;
+    }
+
+    // Models sometimes reopen a code fence, or start the whole reply over despite being asked not to
+    private static String continueWith(String content, String more) {
+        String tail = unfenced(more);
+        String start = unfenced(content.strip()).strip();
+        String restart = tail.strip();
+        int probe = Math.min(24, Math.min(start.length(), restart.length()));
+        if (probe > 0 && start.regionMatches(0, restart, 0, probe)) {
+            return tail;
+        }
+        return content + tail;
+    }
+
+    private static String unfenced(String text) {
+        return text.startsWith("```") && text.indexOf('\n') >= 0 ? text.substring(text.indexOf('\n') + 1) : text;
+    }
+
+    // The shared instruction text (common leading and trailing lines of the prompts) is sent once;
+    // only each request's distinct lines are listed. Items the model leaves out are generated one by one.
+    @Override
+    public List<String> generateBatch(List<StoryRequest> requests) throws IOException {
+        if (requests.size() == 1) {
+            return List.of(generate(requests.get(0)));
+        }
+        List<String[]> lines = new ArrayList<>();
+        for (StoryRequest request : requests) {
+            lines.add(request.prompt().split("\n"));
+        }
+        int prefix = commonPrefix(lines);
+        int suffix = commonSuffix(lines, prefix);
+        String[] first = lines.get(0);
+        StringBuilder user = new StringBuilder();
+        user.append(String.join("\n", Arrays.copyOfRange(first, 0, prefix))).append("\n");
+        for (int i = 0; i < lines.size(); i++) {
+            String[] own = lines.get(i);
+            user.append("\nRequest ").append(i + 1).append(":\n")
+                    .append(String.join("\n", Arrays.copyOfRange(own, prefix, own.length - suffix))).append("\n");
+        }
+        user.append("\n").append(String.join("\n", Arrays.copyOfRange(first, first.length - suffix, first.length)));
+
+        String system = "Answer each of the " + requests.size() + " numbered requests independently. "
+                + "Reply with only a JSON array of exactly " + requests.size()
+                + " objects, one per request in order, each shaped as the instructions describe.";
+        // One call, so the first request's model and temperature apply, with room for every request's output
+        TurnPolicy.Choice choice = policy.choose(requests.get(0).kind());
+        int maxTokens = 0;
+        for (StoryRequest request : requests) {
+            maxTokens += policy.choose(request.kind()).maxTokens();
+        }
+        long started = System.nanoTime();
+        Reply reply = complete(List.of(new ChatRequestEntity.Message("system", system), new ChatRequestEntity.Message("user", user)),
+                choice, maxTokens, null);
+        policy.record(null, choice.model(), System.nanoTime() - started, reply.promptTokens(), reply.completionTokens(),
+                reply.truncated() ? 1 : 0, 0);
+        String content = reply.content();
+
+        JSONArray rooms;
+        try {
+            rooms = new JSONArray(content.replace("```json", "").replace("```", "").trim());
+        } catch (RuntimeException e) {
+            rooms = new JSONArray();
+        }
+        List<String> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            JSONObject room = rooms.optJSONObject(i);
+            results.add(room != null && room.has("description") ? room.toString() : generate(requests.get(i)));
+        }
+        return results;
+    }
+
+    private static int commonPrefix(List<String[]> lines) {
+        int prefix = 0;
+        while (true) {
+            for (String[] prompt : lines) {
+                if (prefix >= prompt.length || !prompt[prefix].equals(lines.get(0)[prefix])) {
+                    return prefix;
+                }
+            }
+            prefix++;
+        }
+    }
+
+    private static int commonSuffix(List<String[]> lines, int prefix) {
+        int suffix = 0;
+        while (true) {
+            String[] first = lines.get(0);
+            for (String[] prompt : lines) {
+                if (prompt.length - suffix <= prefix
+                        || !prompt[prompt.length - 1 - suffix].equals(first[first.length - 1 - suffix])) {
+                    return suffix;
+                }
+            }
+            suffix++;
+        }
+    }
+
+    private Reply complete(List<ChatRequestEntity.Message> messages, TurnPolicy.Choice choice, int maxTokens,
+                           Consumer<String> contentListener) throws IOException {
+        HttpPost post = new HttpPost(url);
+        post.setHeader("Authorization", "Bearer " + apiKey);
+        post.setEntity(new ChatRequestEntity(choice.model(), messages, maxTokens, choice.temperature(), contentListener != null));
+        int promptEstimate = 0;
+        for (ChatRequestEntity.Message message : messages) {
+            promptEstimate += StoryContext.estimateTokens(message.content().toString());
+        }
+        int promptTokens = promptEstimate;
+
+        // The handler consumes the entity so the connection goes back to the shared pool
+        return httpClient.execute(post, response -> {
+            int statusCode = response.getCode();
+            long started = System.nanoTime();
+            if (statusCode == 200 && contentListener != null && isEventStream(response)) {
+                Reply streamed = readStream(response.getEntity(), contentListener, promptTokens);
+                STREAM_TIME.record(System.nanoTime() - started);
+                return streamed;
+            }
+            if (statusCode != 200) {
+                EntityUtils.consume(response.getEntity());
+                throw new ApiException(statusCode, "API returned invalid response (Status: " + statusCode + ")");
+            }
+            // Pulls choices[0].message.content straight off the socket; no response string or JSON tree
+            RoomParser.Completion completion;
+            try (InputStream body = response.getEntity().getContent()) {
+                completion = RoomParser.completion(body);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new ApiException(statusCode, "API returned invalid response (Status: " + statusCode + ")");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Turn cancelled");
+            }
+            BODY_TIME.record(System.nanoTime() - started);
+            if (completion.promptTokens() > 0) {
+                PROMPT_TOKENS.add(completion.promptTokens());
+            }
+            if (completion.completionTokens() > 0) {
+                COMPLETION_TOKENS.add(completion.completionTokens());
+            }
+            return new Reply(completion.content(),
+                    completion.promptTokens() >= 0 ? completion.promptTokens() : promptTokens,
+                    completion.completionTokens() >= 0 ? completion.completionTokens()
+                            : StoryContext.estimateTokens(completion.content()),
+                    completion.truncated());
+        });
+    }
+
+    private static boolean isEventStream(ClassicHttpResponse response) {
+        Header contentType = response.getFirstHeader("Content-Type");
+        return contentType != null && contentType.getValue().startsWith("text/event-stream");
+    }
+
+    // Reads chat-completions server-sent events, forwarding each content delta as it arrives
+    private static Reply readStream(HttpEntity entity, Consumer<String> contentListener, int promptEstimate)
+            throws IOException {
+        StringBuilder content = new StringBuilder();
+        String finishReason = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Turn cancelled");
+                }
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if (data.equals("[DONE]")) {
+                    break;
+                }
+                JSONObject choice = new JSONObject(data).getJSONArray("choices").getJSONObject(0);
+                finishReason = choice.optString("finish_reason", finishReason);
+                JSONObject delta = choice.optJSONObject("delta");
+                String chunk = delta == null ? null : delta.optString("content", null);
+                if (chunk != null && !chunk.isEmpty()) {
+                    content.append(chunk);
+                    contentListener.accept(chunk);
+                }
+            }
+        }
+        String text = content.toString();
+        return new Reply(text, promptEstimate, StoryContext.estimateTokens(text), "length".equals(finishReason));
+    }
+}
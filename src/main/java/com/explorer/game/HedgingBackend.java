@@ -0,0 +1,214 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Cuts tail latency: if the first attempt hasn't answered (or, when streaming, hasn't produced its first
+// chunk) within the recent p95 latency, a second identical attempt is started and whichever finishes first
+// wins; the other is cancelled. Hedges are capped at maxRatio of requests so a degraded provider doesn't
+// see double load. The delay adapts from a two-window histogram of un-hedged latencies. Latency per outcome
+// is exported as grok_hedge_seconds{outcome}.
+public final class HedgingBackend implements StoryBackend {
+    public enum Outcome { PRIMARY, HEDGED_PRIMARY_WON, HEDGE_WON, FAILED }
+
+    private static final int MIN_SAMPLES = 20;
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final StoryBackend delegate;
+    private final long initialDelayNanos;
+    private final long minDelayNanos;
+    private final double quantile;
+    private final double maxRatio;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<Outcome, LatencyHistogram> outcomes = new EnumMap<>(Outcome.class);
+    private volatile LatencyHistogram currentWindow = new LatencyHistogram();
+    private volatile LatencyHistogram previousWindow = new LatencyHistogram();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+
+    public HedgingBackend(StoryBackend delegate, long initialDelayMillis, long minDelayMillis, double quantile,
+                          double maxRatio) {
+        if (initialDelayMillis <= 0 || minDelayMillis <= 0 || quantile <= 0 || quantile >= 1 || maxRatio < 0) {
+            throw new IllegalArgumentException("Invalid hedging settings");
+        }
+        this.delegate = delegate;
+        this.initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(initialDelayMillis);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.quantile = quantile;
+        this.maxRatio = maxRatio;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Metrics.timer("grok_hedge_seconds", "outcome", outcome.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    public static HedgingBackend fromConfig(StoryBackend delegate) {
+        return new HedgingBackend(delegate,
+                Config.getInt("grok.hedge.initialDelayMs", 3000),
+                Config.getInt("grok.hedge.minDelayMs", 100),
+                Double.parseDouble(Config.get("grok.hedge.quantile", "0.95")),
+                Double.parseDouble(Config.get("grok.hedge.maxRatio", "0.1")));
+    }
+
+    private record Win(int attempt, String content) {
+    }
+
+    // One logical request: up to two attempts racing for the same result
+    private final class Call {
+        private final StoryRequest request;
+        private final Consumer<String> contentListener;
+        private final CompletableFuture<Win> winner = new CompletableFuture<>();
+        // Streaming: the first attempt to emit a chunk owns the listener; the other is cancelled
+        private final AtomicInteger streamOwner = new AtomicInteger(-1);
+        private final List<Future<?>> attempts = new ArrayList<>(2);
+        private int failures;
+
+        private Call(StoryRequest request, Consumer<String> contentListener) {
+            this.request = request;
+            this.contentListener = contentListener;
+        }
+
+        private synchronized void start() {
+            int id = attempts.size();
+            Consumer<String> listener = contentListener == null ? null : chunk -> {
+                if (streamOwner.compareAndSet(-1, id)) {
+                    cancelAllBut(id);
+                }
+                if (streamOwner.get() == id) {
+                    contentListener.accept(chunk);
+                }
+            };
+            attempts.add(executor.submit(() -> {
+                try {
+                    String content = delegate.generate(id == 0 ? request : request.withAttempt(id), listener);
+                    if (listener == null || streamOwner.get() == id || streamOwner.compareAndSet(-1, id)) {
+                        winner.complete(new Win(id, content));
+                    }
+                } catch (Throwable t) {
+                    failed(t);
+                }
+            }));
+        }
+
+        // Only fail the request when no other attempt can still answer it
+        private synchronized void failed(Throwable t) {
+            if (++failures >= attempts.size()) {
+                winner.completeExceptionally(t);
+            }
+        }
+
+        private synchronized boolean hedged() {
+            return attempts.size() > 1;
+        }
+
+        private synchronized void cancelAllBut(int keep) {
+            for (int i = 0; i < attempts.size(); i++) {
+                if (i != keep) {
+                    attempts.get(i).cancel(true);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String generate(StoryRequest request, Consumer<String> contentListener) throws IOException {
+        requests.increment();
+        long started = System.nanoTime();
+        Call call = new Call(request, contentListener);
+        call.start();
+        try {
+            Win win;
+            try {
+                win = call.winner.get(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (call.streamOwner.get() < 0 && hedgeAllowed()) {
+                    hedges.increment();
+                    call.start();
+                }
+                win = call.winner.get();
+            }
+            record(System.nanoTime() - started, call.hedged(), win.attempt());
+            return win.content();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Turn cancelled");
+        } catch (ExecutionException e) {
+            outcomes.get(Outcome.FAILED).record(System.nanoTime() - started);
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            call.cancelAllBut(-1);
+        }
+    }
+
+    private void record(long elapsed, boolean hedged, int winningAttempt) {
+        if (!hedged) {
+            outcomes.get(Outcome.PRIMARY).record(elapsed);
+            window().record(elapsed);
+        } else if (winningAttempt == 0) {
+            outcomes.get(Outcome.HEDGED_PRIMARY_WON).record(elapsed);
+            window().record(elapsed);
+        } else {
+            outcomes.get(Outcome.HEDGE_WON).record(elapsed);
+        }
+    }
+
+    private boolean hedgeAllowed() {
+        return hedges.sum() < maxRatio * requests.sum() + 1;
+    }
+
+    // p95 of recent un-hedged latencies, never below minDelay; the configured initial delay until warmed up
+    long hedgeDelayNanos() {
+        LatencyHistogram current = currentWindow;
+        LatencyHistogram previous = previousWindow;
+        if (current.count() + previous.count() < MIN_SAMPLES) {
+            return initialDelayNanos;
+        }
+        return Math.max(minDelayNanos, LatencyHistogram.percentileNanos(quantile, current, previous));
+    }
+
+    private LatencyHistogram window() {
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start > WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            previousWindow = currentWindow;
+            currentWindow = new LatencyHistogram();
+        }
+        return currentWindow;
+    }
+
+    public LatencyHistogram histogram(Outcome outcome) {
+        return outcomes.get(outcome);
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    public double currentHedgeDelayMillis() {
+        return hedgeDelayNanos() / 1e6;
+    }
+}
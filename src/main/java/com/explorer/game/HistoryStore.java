@@ -0,0 +1,236 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Adventure log with a bounded in-memory window of recent entries; older entries are spilled to a
+// temporary segment file and read back on demand. Positions are absolute and keep growing across
+// clear(), and each clear() starts a new generation, so a viewer holding a position can tell that the
+// log was reset under it even when nothing has been added since.
+public final class HistoryStore implements Iterable<String> {
+    private static final int PAGE_SIZE = 256;
+
+    private final int windowSize;
+    private final ArrayDeque<String> window = new ArrayDeque<>();
+    private long start;
+    private long end;
+    private long generation;
+    // Entries [start, start + spilled) live in the segment file at segmentOffsets
+    private int spilled;
+    private long[] segmentOffsets = new long[64];
+    private Path segmentFile;
+    private FileChannel segment;
+
+    public HistoryStore(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("History window must be positive");
+        }
+        this.windowSize = windowSize;
+    }
+
+    public static HistoryStore fromConfig() {
+        return new HistoryStore(Config.getInt("grok.history.window", 200));
+    }
+
+    synchronized void add(String entry) {
+        window.addLast(entry);
+        end++;
+        if (window.size() > windowSize) {
+            spill(window.removeFirst());
+        }
+    }
+
+    synchronized void addAll(List<String> entries) {
+        entries.forEach(this::add);
+    }
+
+    synchronized void clear() {
+        window.clear();
+        start = end;
+        generation++;
+        spilled = 0;
+        closeSegment();
+    }
+
+    public synchronized int size() {
+        return (int) (end - start);
+    }
+
+    public synchronized long start() {
+        return start;
+    }
+
+    public synchronized long end() {
+        return end;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized String last() {
+        return window.peekLast();
+    }
+
+    // Up to max entries beginning at the absolute position from (clamped to what is still stored)
+    public synchronized List<String> range(long from, int max) {
+        long first = Math.max(from, start);
+        int count = (int) Math.min(max, Math.max(0, end - first));
+        List<String> page = new ArrayList<>(count);
+        int index = (int) (first - start);
+        while (page.size() < count && index < spilled) {
+            page.add(readSpilled(index++));
+        }
+        if (page.size() < count) {
+            Iterator<String> recent = window.iterator();
+            for (int skip = index - spilled; skip > 0; skip--) {
+                recent.next();
+            }
+            while (page.size() < count) {
+                page.add(recent.next());
+            }
+        }
+        return page;
+    }
+
+    public synchronized List<String> page(int pageIndex, int pageSize) {
+        return range(start + (long) pageIndex * pageSize, pageSize);
+    }
+
+    // Walks the log page by page, so a full pass never holds more than one page of spilled entries
+    @Override
+    public Iterator<String> iterator() {
+        long[] bounds;
+        synchronized (this) {
+            bounds = new long[]{start, end};
+        }
+        return new Iterator<>() {
+            private long next = bounds[0];
+            private Iterator<String> page = List.<String>of().iterator();
+
+            @Override
+            public boolean hasNext() {
+                if (page.hasNext()) {
+                    return true;
+                }
+                if (next >= bounds[1]) {
+                    return false;
+                }
+                List<String> entries = range(next, (int) Math.min(PAGE_SIZE, bounds[1] - next));
+                next += entries.size();
+                page = entries.iterator();
+                if (entries.isEmpty()) {
+                    next = bounds[1];
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    // Entries [from, to) of the given generation, read a page at a time so concurrent adds aren't held up;
+    // null once the log has been cleared since
+    public List<String> copy(long generation, long from, long to) {
+        List<String> entries = new ArrayList<>((int) Math.min(to - from, windowSize));
+        for (long next = from; next < to; ) {
+            List<String> page;
+            synchronized (this) {
+                if (this.generation != generation) {
+                    return null;
+                }
+                page = range(next, (int) Math.min(PAGE_SIZE, to - next));
+            }
+            entries.addAll(page);
+            next += page.size();
+        }
+        return entries;
+    }
+
+    public List<String> toList() {
+        List<String> all = new ArrayList<>();
+        forEach(all::add);
+        return all;
+    }
+
+    // Deletes the segment file; the store is still usable afterwards
+    synchronized void close() {
+        clear();
+    }
+
+    private void spill(String entry) {
+        try {
+            if (segment == null) {
+                segmentFile = Files.createTempFile("history-", ".seg");
+                segment = FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            if (spilled == segmentOffsets.length) {
+                segmentOffsets = Arrays.copyOf(segmentOffsets, spilled * 2);
+            }
+            long offset = segment.size();
+            byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).flip();
+            while (buffer.hasRemaining()) {
+                segment.write(buffer, offset + buffer.position());
+            }
+            segmentOffsets[spilled++] = offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill history to " + segmentFile, e);
+        }
+    }
+
+    private String readSpilled(int index) {
+        try {
+            long offset = segmentOffsets[index];
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(length, offset);
+            ByteBuffer bytes = ByteBuffer.allocate(length.flip().getInt());
+            readFully(bytes, offset + Integer.BYTES);
+            return new String(bytes.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read history from " + segmentFile, e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (segment.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated history segment");
+            }
+        }
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            try {
+                segment.close();
+                Files.deleteIfExists(segmentFile);
+            } catch (IOException e) {
+                // Best effort; the file is in the temp directory
+            }
+            segment = null;
+            segmentFile = null;
+        }
+        if (segmentOffsets.length > 64) {
+            segmentOffsets = new long[64];
+        }
+    }
+}
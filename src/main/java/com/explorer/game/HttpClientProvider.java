@@ -0,0 +1,84 @@
+package com.explorer.game;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+public final class HttpClientProvider {
+    private static final String CONNECT_STARTED = "grok.connect.started";
+    private static final LatencyHistogram CONNECT_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "connect");
+    private static final LatencyHistogram TTFB_TIME = Metrics.timer("grok_turn_stage_seconds", "stage", "ttfb");
+    private static volatile CloseableHttpClient shared;
+
+    private HttpClientProvider() {
+    }
+
+    // One pooled client per process; every Game shares its warm connections
+    public static CloseableHttpClient shared() {
+        CloseableHttpClient client = shared;
+        if (client == null) {
+            synchronized (HttpClientProvider.class) {
+                client = shared;
+                if (client == null) {
+                    client = create(HttpClientSettings.fromConfig());
+                    CloseableHttpClient toClose = client;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> toClose.close(CloseMode.GRACEFUL),
+                            "http-client-shutdown"));
+                    shared = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    public static CloseableHttpClient create(HttpClientSettings settings) {
+        TimeValue keepAlive = TimeValue.ofSeconds(settings.keepAliveSeconds());
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.maxConnections())
+                .setMaxConnPerRoute(settings.maxConnectionsPerRoute())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setTcpNoDelay(true)
+                        .setSoKeepAlive(true)
+                        .build())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(settings.responseTimeoutMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(settings.responseTimeoutMillis()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                // Lease/connect/TLS ends where the main transport starts; it returns once response headers are in
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(), "connect-timer", (request, scope, chain) -> {
+                    scope.clientContext.setAttribute(CONNECT_STARTED, System.nanoTime());
+                    return chain.proceed(request, scope);
+                })
+                .addExecInterceptorBefore(ChainElement.MAIN_TRANSPORT.name(), "ttfb-timer", (request, scope, chain) -> {
+                    long connected = System.nanoTime();
+                    if (scope.clientContext.getAttribute(CONNECT_STARTED) instanceof Long started) {
+                        CONNECT_TIME.record(connected - started);
+                    }
+                    ClassicHttpResponse response = chain.proceed(request, scope);
+                    TTFB_TIME.record(System.nanoTime() - connected);
+                    return response;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.explorer.game;
+
+public record HttpClientSettings(
+        int connectTimeoutMillis,
+        int responseTimeoutMillis,
+        int keepAliveSeconds,
+        int maxConnections,
+        int maxConnectionsPerRoute) {
+
+    public HttpClientSettings {
+        if (connectTimeoutMillis <= 0 || responseTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Timeouts must be positive");
+        }
+        if (keepAliveSeconds <= 0) {
+            throw new IllegalArgumentException("Keep-alive must be positive");
+        }
+        if (maxConnections <= 0 || maxConnectionsPerRoute <= 0 || maxConnectionsPerRoute > maxConnections) {
+            throw new IllegalArgumentException("Connection limits must be positive and per-route <= total");
+        }
+    }
+
+    public static HttpClientSettings defaults() {
+        return new HttpClientSettings(5_000, 60_000, 60, 64, 64);
+    }
+
+    public static HttpClientSettings fromConfig() {
+        HttpClientSettings defaults = defaults();
+        int maxConnections = Config.getInt("grok.http.maxConnections", defaults.maxConnections());
+        return new HttpClientSettings(
+                Config.getInt("grok.http.connectTimeoutMs", defaults.connectTimeoutMillis()),
+                Config.getInt("grok.http.responseTimeoutMs", defaults.responseTimeoutMillis()),
+                Config.getInt("grok.http.keepAliveSeconds", defaults.keepAliveSeconds()),
+                maxConnections,
+                Config.getInt("grok.http.maxConnectionsPerRoute", maxConnections));
+    }
+}
@@ -0,0 +1,216 @@
+package com.explorer.game;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+
+// Stacking inventory keyed by interned item IDs. Stacks live in parallel int arrays in first-acquired
+// order; an open-addressing table maps item ID to stack slot, so add, remove and contains are O(1).
+// A stack that runs out stays as an empty slot (and keeps its place if the item comes back) until
+// empty slots outnumber live ones, when the arrays are compacted.
+public final class Inventory {
+    private static final int EMPTY = -1;
+
+    private int[] itemIds = new int[8];
+    private int[] quantities = new int[8];
+    private int slots;
+    private int stacks;
+    private int total;
+    private int[] table = newTable(16);
+    private final List<String> view = new ItemsView();
+
+    public boolean contains(String item) {
+        return count(item) > 0;
+    }
+
+    public int count(String item) {
+        int slot = slotOf(ItemNames.lookup(item));
+        return slot == EMPTY ? 0 : quantities[slot];
+    }
+
+    // Distinct items held
+    public int stacks() {
+        return stacks;
+    }
+
+    // Items held, counting every unit of every stack
+    public int size() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    // Each held item with its quantity, in the order the items were first picked up
+    public void forEachStack(ObjIntConsumer<String> action) {
+        for (int slot = 0; slot < slots; slot++) {
+            if (quantities[slot] > 0) {
+                action.accept(ItemNames.name(itemIds[slot]), quantities[slot]);
+            }
+        }
+    }
+
+    // Read-only live view with one element per unit ("torch", "torch", "rope"), the shape saves and the
+    // old List-based API use. Iterating it is O(size); get(i) is O(stacks).
+    public List<String> asList() {
+        return view;
+    }
+
+    void add(String item) {
+        int id = ItemNames.intern(item);
+        int slot = slotOf(id);
+        if (slot == EMPTY) {
+            slot = newSlot(id);
+        }
+        if (quantities[slot]++ == 0) {
+            stacks++;
+        }
+        total++;
+    }
+
+    // Drops one unit; false if the item wasn't held
+    boolean remove(String item) {
+        int slot = slotOf(ItemNames.lookup(item));
+        if (slot == EMPTY || quantities[slot] == 0) {
+            return false;
+        }
+        total--;
+        if (--quantities[slot] == 0) {
+            stacks--;
+            if (slots - stacks > Math.max(8, stacks)) {
+                compact();
+            }
+        }
+        return true;
+    }
+
+    void clear() {
+        slots = stacks = total = 0;
+        Arrays.fill(table, EMPTY);
+    }
+
+    private int slotOf(int id) {
+        if (id == ItemNames.UNKNOWN) {
+            return EMPTY;
+        }
+        int mask = table.length - 1;
+        for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+            int slot = table[i];
+            if (slot == EMPTY || itemIds[slot] == id) {
+                return slot;
+            }
+        }
+    }
+
+    private int newSlot(int id) {
+        if (slots == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, slots * 2);
+            quantities = Arrays.copyOf(quantities, slots * 2);
+        }
+        int slot = slots++;
+        itemIds[slot] = id;
+        quantities[slot] = 0;
+        if (slots * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(table, slot);
+        }
+        return slot;
+    }
+
+    // Squeezes out empty stacks, keeping the remaining order
+    private void compact() {
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (quantities[slot] > 0) {
+                itemIds[live] = itemIds[slot];
+                quantities[live] = quantities[slot];
+                live++;
+            }
+        }
+        slots = live;
+        rehash(table.length);
+    }
+
+    private void rehash(int capacity) {
+        table = newTable(capacity);
+        for (int slot = 0; slot < slots; slot++) {
+            insert(table, slot);
+        }
+    }
+
+    private void insert(int[] into, int slot) {
+        int mask = into.length - 1;
+        int i = hash(itemIds[slot]) & mask;
+        while (into[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        into[i] = slot;
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    // IDs are sequential, so spread them before masking
+    private static int hash(int id) {
+        return id * 0x9E3779B9;
+    }
+
+    private final class ItemsView extends AbstractList<String> {
+        @Override
+        public int size() {
+            return total;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String item && Inventory.this.contains(item);
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= total) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            for (int slot = 0; ; slot++) {
+                if (index < quantities[slot]) {
+                    return ItemNames.name(itemIds[slot]);
+                }
+                index -= quantities[slot];
+            }
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int slot;
+                private int unit;
+
+                @Override
+                public boolean hasNext() {
+                    while (slot < slots && unit >= quantities[slot]) {
+                        slot++;
+                        unit = 0;
+                    }
+                    return slot < slots;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    unit++;
+                    return ItemNames.name(itemIds[slot]);
+                }
+            };
+        }
+    }
+}
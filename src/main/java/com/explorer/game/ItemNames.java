@@ -0,0 +1,50 @@
+package com.explorer.game;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide interning of item names to small integer IDs, shared by every session's inventory so
+// "torch" is stored once no matter how many players carry one. Names are never released; the set of
+// distinct items the model invents grows far slower than the number of turns.
+final class ItemNames {
+    static final int UNKNOWN = -1;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[256];
+    private static int count;
+
+    private ItemNames() {
+    }
+
+    static int intern(String name) {
+        Integer id = IDS.get(name);
+        return id != null ? id : register(name);
+    }
+
+    // ID of a name seen before, or UNKNOWN; never registers, so lookups of junk don't grow the table
+    static int lookup(String name) {
+        Integer id = IDS.get(name);
+        return id != null ? id : UNKNOWN;
+    }
+
+    static String name(int id) {
+        return names[id];
+    }
+
+    private static synchronized int register(String name) {
+        Integer existing = IDS.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = names;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, count * 2);
+            names = current;
+        }
+        int id = count++;
+        current[id] = name;
+        // Publishing through the map orders the array write before any reader that gets this ID
+        IDS.put(name, id);
+        return id;
+    }
+}
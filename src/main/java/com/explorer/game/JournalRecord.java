@@ -0,0 +1,6 @@
+package com.explorer.game;
+
+// One applied turn: enough to redo it on top of the previous state without calling the backend
+public record JournalRecord(long sequence, Kind kind, String choice, Room room, StateDelta delta, String historyEntry) {
+    public enum Kind { TURN, RESTART }
+}
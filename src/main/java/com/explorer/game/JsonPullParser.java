@@ -0,0 +1,295 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Minimal pull tokenizer for the few JSON shapes we read on the hot path. It keeps one reusable text
+// buffer, so walking past fields we don't need allocates nothing.
+final class JsonPullParser {
+    enum Token { START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, STRING, NUMBER, TRUE, FALSE, NULL, END }
+
+    interface Source {
+        // Next character, or -1 at the end
+        int read() throws IOException;
+    }
+
+    private static final int NONE = -2;
+
+    private final Source source;
+    private final StringBuilder text = new StringBuilder(64);
+    private boolean[] objectStack = new boolean[16];
+    private int depth;
+    private boolean expectName;
+    private int peeked = NONE;
+
+    JsonPullParser(Source source) {
+        this.source = source;
+    }
+
+    // Decodes UTF-8 itself: an InputStreamReader would allocate ~16KB of decoder and char buffers per response,
+    // more than the JSON we read. Malformed sequences become U+FFFD like the JDK decoder's REPLACE mode.
+    static Source utf8Source(InputStream in) {
+        return new Source() {
+            private final byte[] buffer = new byte[1024];
+            private int position;
+            private int limit;
+            private int lowSurrogate = -1;
+
+            @Override
+            public int read() throws IOException {
+                if (lowSurrogate >= 0) {
+                    int c = lowSurrogate;
+                    lowSurrogate = -1;
+                    return c;
+                }
+                int b = readByte();
+                if (b < 0x80) {
+                    return b;
+                }
+                int extra;
+                int codePoint;
+                if ((b & 0xE0) == 0xC0) {
+                    extra = 1;
+                    codePoint = b & 0x1F;
+                } else if ((b & 0xF0) == 0xE0) {
+                    extra = 2;
+                    codePoint = b & 0x0F;
+                } else if ((b & 0xF8) == 0xF0) {
+                    extra = 3;
+                    codePoint = b & 0x07;
+                } else {
+                    return 0xFFFD;
+                }
+                for (int i = 0; i < extra; i++) {
+                    int next = readByte();
+                    if ((next & 0xC0) != 0x80) {
+                        return 0xFFFD;
+                    }
+                    codePoint = (codePoint << 6) | (next & 0x3F);
+                }
+                if (codePoint > 0xFFFF) {
+                    lowSurrogate = Character.lowSurrogate(codePoint);
+                    return Character.highSurrogate(codePoint);
+                }
+                return codePoint;
+            }
+
+            private int readByte() throws IOException {
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return -1;
+                    }
+                }
+                return buffer[position++] & 0xFF;
+            }
+        };
+    }
+
+    static Source charSequenceSource(CharSequence chars) {
+        return new Source() {
+            private int position;
+
+            @Override
+            public int read() {
+                return position < chars.length() ? chars.charAt(position++) : -1;
+            }
+        };
+    }
+
+    Token next() throws IOException {
+        while (true) {
+            int c = nextNonWhitespace();
+            switch (c) {
+                case -1:
+                    return Token.END;
+                case '{':
+                    push(true);
+                    expectName = true;
+                    return Token.START_OBJECT;
+                case '}':
+                    pop();
+                    return Token.END_OBJECT;
+                case '[':
+                    push(false);
+                    expectName = false;
+                    return Token.START_ARRAY;
+                case ']':
+                    pop();
+                    return Token.END_ARRAY;
+                case ',':
+                    expectName = depth > 0 && objectStack[depth - 1];
+                    continue;
+                case ':':
+                    continue;
+                case '"':
+                    readString();
+                    if (expectName) {
+                        expectName = false;
+                        return Token.FIELD_NAME;
+                    }
+                    return Token.STRING;
+                case 't':
+                    expectLiteral("rue");
+                    return Token.TRUE;
+                case 'f':
+                    expectLiteral("alse");
+                    return Token.FALSE;
+                case 'n':
+                    expectLiteral("ull");
+                    return Token.NULL;
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        readNumber(c);
+                        return Token.NUMBER;
+                    }
+                    throw new IOException("Unexpected character '" + (char) c + "' in JSON");
+            }
+        }
+    }
+
+    // Text of the last FIELD_NAME, STRING or NUMBER token; only valid until the next call to next()
+    CharSequence text() {
+        return text;
+    }
+
+    String stringValue() {
+        return text.toString();
+    }
+
+    boolean textEquals(String value) {
+        if (text.length() != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (text.charAt(i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Integer value of the last NUMBER (or numeric STRING) token; fractions are truncated like org.json's optInt
+    int intValue(int defaultValue) {
+        try {
+            return (int) Long.parseLong(text, 0, text.length(), 10);
+        } catch (NumberFormatException e) {
+            try {
+                return (int) Double.parseDouble(stringValue());
+            } catch (NumberFormatException notNumeric) {
+                return defaultValue;
+            }
+        }
+    }
+
+    // Skips the value whose first token was just returned (a no-op for scalars)
+    void skipValue(Token first) throws IOException {
+        if (first != Token.START_OBJECT && first != Token.START_ARRAY) {
+            return;
+        }
+        int target = depth - 1;
+        while (depth > target) {
+            if (next() == Token.END) {
+                throw new IOException("Unexpected end of JSON");
+            }
+        }
+    }
+
+    // Discards raw characters up to (not including) the next occurrence of c; false if the input ends first.
+    // Used to step over code fences or prose the model puts around its JSON.
+    boolean skipTo(char c) throws IOException {
+        int next = peeked != NONE ? peeked : source.read();
+        peeked = NONE;
+        while (next != -1 && next != c) {
+            next = source.read();
+        }
+        if (next == -1) {
+            return false;
+        }
+        peeked = next;
+        return true;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c = peeked != NONE ? peeked : source.read();
+        peeked = NONE;
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            c = source.read();
+        }
+        return c;
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = source.read();
+            if (c == '"') {
+                return;
+            }
+            if (c == -1) {
+                throw new IOException("Unterminated JSON string");
+            }
+            text.append((char) (c == '\\' ? unescape(source.read()) : c));
+        }
+    }
+
+    private int unescape(int c) throws IOException {
+        return switch (c) {
+            case '"', '\\', '/' -> c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(source.read(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Invalid \\u escape in JSON string");
+                    }
+                    value = (value << 4) | digit;
+                }
+                yield value;
+            }
+            default -> throw new IOException("Invalid escape in JSON string");
+        };
+    }
+
+    private void readNumber(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        int c = source.read();
+        while ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+            text.append((char) c);
+            c = source.read();
+        }
+        peeked = c;
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (source.read() != rest.charAt(i)) {
+                throw new IOException("Invalid JSON literal");
+            }
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == objectStack.length) {
+            objectStack = Arrays.copyOf(objectStack, depth * 2);
+        }
+        objectStack[depth++] = object;
+    }
+
+    private void pop() throws IOException {
+        if (depth == 0) {
+            throw new IOException("Unbalanced JSON");
+        }
+        depth--;
+        expectName = false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.explorer.game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free log-linear histogram of durations: 16 linear sub-buckets per power of two of microseconds,
+// so any recorded value is reported within ~6%. Covers 1 µs to ~2.4 hours; larger values land in the last bucket.
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 32;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(index(micros));
+        count.increment();
+        sumMicros.add(micros);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double meanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : sumMicros.sum() / 1000.0 / n;
+    }
+
+    // Upper bound of the bucket holding the given quantile, in nanoseconds; 0 when empty
+    public long percentileNanos(double quantile) {
+        return percentileNanos(quantile, this);
+    }
+
+    public double percentileMillis(double quantile) {
+        return percentileNanos(quantile) / 1e6;
+    }
+
+    // Quantile over the combined counts of several histograms, e.g. the current and previous time window
+    public static long percentileNanos(double quantile, LatencyHistogram... histograms) {
+        long total = 0;
+        for (LatencyHistogram histogram : histograms) {
+            total += histogram.count.sum();
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            for (LatencyHistogram histogram : histograms) {
+                seen += histogram.counts.get(i);
+            }
+            if (seen >= rank) {
+                return TimeUnit.MICROSECONDS.toNanos(upperBound(i));
+            }
+        }
+        return TimeUnit.MICROSECONDS.toNanos(upperBound(BUCKETS - 1));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sumMicros.reset();
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+}
@@ -2,6 +2,7 @@ package com.explorer.game;
 
 public class LostExplorer {
     public static void main(String[] args) {
+        MetricsExporter.startFromConfig();
         Game game = GameUI.showStartupDialog();
         if (game != null) {
             new GameUI(game);
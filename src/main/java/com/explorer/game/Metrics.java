@@ -0,0 +1,151 @@
+package com.explorer.game;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+// Process-wide registry of timers (LatencyHistogram), counters (LongAdder) and read-through values owned by
+// other components. Look a metric up once and keep the reference: recording is then a lock-free add.
+// Names follow Prometheus conventions; labels are given as key/value pairs.
+public final class Metrics {
+    private enum Type { SUMMARY, COUNTER, GAUGE }
+
+    private record Key(String name, String labels) {
+    }
+
+    private record Metric(Type type, Object value) {
+    }
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final ConcurrentSkipListMap<Key, Metric> METRICS = new ConcurrentSkipListMap<>(
+            Comparator.comparing(Key::name).thenComparing(Key::labels));
+
+    private Metrics() {
+    }
+
+    // Durations; exported in seconds, so name it *_seconds
+    public static LatencyHistogram timer(String name, String... labels) {
+        return (LatencyHistogram) register(name, labels, Type.SUMMARY, LatencyHistogram::new);
+    }
+
+    public static LongAdder counter(String name, String... labels) {
+        return (LongAdder) register(name, labels, Type.COUNTER, LongAdder::new);
+    }
+
+    // A monotonic count kept by another component (e.g. a gateway's retries); the latest registration wins
+    public static void counter(String name, DoubleSupplier value, String... labels) {
+        METRICS.put(new Key(name, labels(labels)), new Metric(Type.COUNTER, value));
+    }
+
+    public static void gauge(String name, DoubleSupplier value, String... labels) {
+        METRICS.put(new Key(name, labels(labels)), new Metric(Type.GAUGE, value));
+    }
+
+    // Empties every timer, e.g. after a load test's warm-up; counters are monotonic and keep their totals
+    public static void resetTimers() {
+        for (Metric metric : METRICS.values()) {
+            if (metric.value() instanceof LatencyHistogram histogram) {
+                histogram.reset();
+            }
+        }
+    }
+
+    private static Object register(String name, String[] labels, Type type, Supplier<Object> factory) {
+        Metric metric = METRICS.computeIfAbsent(new Key(name, labels(labels)), key -> new Metric(type, factory.get()));
+        if (metric.type() != type || metric.value() instanceof DoubleSupplier) {
+            throw new IllegalStateException("Metric " + name + " is already registered as a different kind");
+        }
+        return metric.value();
+    }
+
+    private static String labels(String[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be key/value pairs");
+        }
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(pairs[i]).append("=\"")
+                    .append(pairs[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return labels.toString();
+    }
+
+    // Prometheus text exposition format (version 0.0.4); timers are summaries with p50/p90/p99
+    public static String prometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        String family = null;
+        for (Map.Entry<Key, Metric> entry : METRICS.entrySet()) {
+            Key key = entry.getKey();
+            Metric metric = entry.getValue();
+            if (!key.name().equals(family)) {
+                family = key.name();
+                out.append("# TYPE ").append(family).append(' ').append(metric.type().name().toLowerCase()).append('\n');
+            }
+            switch (metric.type()) {
+                case SUMMARY -> {
+                    LatencyHistogram histogram = (LatencyHistogram) metric.value();
+                    long count = histogram.count();
+                    for (double quantile : QUANTILES) {
+                        sample(out, key.name(), key.labels(), "quantile=\"" + quantile + "\"",
+                                histogram.percentileNanos(quantile) / 1e9);
+                    }
+                    sample(out, key.name() + "_sum", key.labels(), null, histogram.meanMillis() * count / 1e3);
+                    sample(out, key.name() + "_count", key.labels(), null, count);
+                }
+                case COUNTER, GAUGE -> sample(out, key.name(), key.labels(), null, value(metric));
+            }
+        }
+        return out.toString();
+    }
+
+    // One line for the periodic log: every timer that has samples and every non-zero counter
+    public static String summary() {
+        StringBuilder out = new StringBuilder(1024);
+        for (Map.Entry<Key, Metric> entry : METRICS.entrySet()) {
+            Key key = entry.getKey();
+            Metric metric = entry.getValue();
+            String name = key.labels().isEmpty() ? key.name() : key.name() + "{" + key.labels() + "}";
+            if (metric.type() == Type.SUMMARY) {
+                LatencyHistogram histogram = (LatencyHistogram) metric.value();
+                if (histogram.count() > 0) {
+                    out.append(name).append(" n=").append(histogram.count())
+                            .append(String.format(" p50=%.1fms p99=%.1fms ",
+                                    histogram.percentileMillis(0.5), histogram.percentileMillis(0.99)));
+                }
+            } else {
+                double value = value(metric);
+                if (value != 0) {
+                    out.append(name).append('=').append(format(value)).append(' ');
+                }
+            }
+        }
+        return out.toString().trim();
+    }
+
+    private static double value(Metric metric) {
+        return metric.value() instanceof LongAdder adder ? adder.sum() : ((DoubleSupplier) metric.value()).getAsDouble();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String extra, double value) {
+        out.append(name);
+        if (!labels.isEmpty() || extra != null) {
+            out.append('{').append(labels);
+            if (extra != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extra);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+}
@@ -0,0 +1,75 @@
+package com.explorer.game;
+
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+// Publishes Metrics as a Prometheus scrape target on localhost (grok.metrics.port) and/or as a periodic
+// INFO log line (grok.metrics.logIntervalSeconds). Both are off unless configured.
+public final class MetricsExporter {
+    private static final Logger log = LoggerFactory.getLogger(MetricsExporter.class);
+    private static boolean started;
+
+    private MetricsExporter() {
+    }
+
+    public static synchronized void startFromConfig() {
+        if (started) {
+            return;
+        }
+        started = true;
+        int port = Config.getInt("grok.metrics.port", 0);
+        if (port > 0) {
+            serve(port);
+        }
+        int interval = Config.getInt("grok.metrics.logIntervalSeconds", 0);
+        if (interval > 0) {
+            logEvery(Duration.ofSeconds(interval));
+        }
+    }
+
+    public static HttpServer serve(int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = Metrics.prometheus().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            log.info("Serving metrics at http://localhost:{}/metrics", server.getAddress().getPort());
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serve metrics on port " + port, e);
+        }
+    }
+
+    public static void logEvery(Duration interval) {
+        Thread.ofVirtual().name("metrics-log").start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(interval);
+                    String summary = Metrics.summary();
+                    if (!summary.isEmpty()) {
+                        log.info("metrics {}", summary);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
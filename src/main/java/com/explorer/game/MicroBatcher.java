@@ -0,0 +1,157 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Collects requests that arrive within windowMillis (or until maxSize are waiting) and sends them as one
+// upstream batch, handing each caller its own room. Streaming requests skip the batch: they want the
+// first token as soon as possible, which is the opposite trade-off.
+public final class MicroBatcher implements StoryBackend {
+    private final BatchStoryBackend delegate;
+    private final long windowNanos;
+    private final int maxSize;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending> open;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedRequests = new LongAdder();
+    private final LongAdder fullBatches = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    private record Pending(StoryRequest request, long enqueuedAt, CompletableFuture<String> result) {
+    }
+
+    public MicroBatcher(BatchStoryBackend delegate, long windowMillis, int maxSize) {
+        if (windowMillis <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("Batch window and size must be positive");
+        }
+        this.delegate = delegate;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxSize = maxSize;
+    }
+
+    public static MicroBatcher fromConfig(BatchStoryBackend delegate) {
+        return new MicroBatcher(delegate, Config.getInt("grok.batch.windowMs", 10), Config.getInt("grok.batch.maxSize", 8));
+    }
+
+    @Override
+    public String generate(StoryRequest request, Consumer<String> contentListener) throws IOException {
+        if (contentListener != null) {
+            bypassed.increment();
+            return delegate.generate(request, contentListener);
+        }
+        Pending pending = new Pending(request, System.nanoTime(), new CompletableFuture<>());
+        List<Pending> full = null;
+        lock.lock();
+        try {
+            if (open == null) {
+                List<Pending> batch = new ArrayList<>(maxSize);
+                open = batch;
+                executor.execute(() -> flushAfterWindow(batch));
+            }
+            open.add(pending);
+            if (open.size() >= maxSize) {
+                full = open;
+                open = null;
+                fullBatches.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            List<Pending> batch = full;
+            executor.execute(() -> send(batch));
+        }
+        try {
+            return pending.result().get();
+        } catch (InterruptedException e) {
+            // The batch still completes for the other callers; this caller just stops waiting
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Turn cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void flushAfterWindow(List<Pending> batch) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(windowNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (open != batch) {
+                return; // Already sent because it filled up
+            }
+            open = null;
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private void send(List<Pending> batch) {
+        long now = System.nanoTime();
+        List<StoryRequest> requests = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            requests.add(pending.request());
+            queueNanos.add(now - pending.enqueuedAt());
+        }
+        batches.increment();
+        batchedRequests.add(batch.size());
+        try {
+            List<String> rooms = batch.size() == 1
+                    ? List.of(delegate.generate(requests.get(0)))
+                    : delegate.generateBatch(requests);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(rooms.get(i));
+            }
+        } catch (Throwable t) {
+            batch.forEach(pending -> pending.result().completeExceptionally(t));
+        }
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    public long batchedRequests() {
+        return batchedRequests.sum();
+    }
+
+    // Batches sent because they reached maxSize rather than because the window expired
+    public long fullBatches() {
+        return fullBatches.sum();
+    }
+
+    public long bypassed() {
+        return bypassed.sum();
+    }
+
+    public double averageBatchSize() {
+        long sent = batches.sum();
+        return sent == 0 ? 0.0 : (double) batchedRequests.sum() / sent;
+    }
+
+    // Mean time a request waited for its batch to be sent
+    public double averageQueueMillis() {
+        long requests = batchedRequests.sum();
+        return requests == 0 ? 0.0 : queueNanos.sum() / 1e6 / requests;
+    }
+}
@@ -1,23 +1,23 @@
 package com.explorer.game;
 
-import java.io.Serial;
-import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 
-public class Player implements Serializable {
-    @Serial
-    private static final long serialVersionUID = 1L;
-    private final List<String> inventory;
+public class Player {
+    private final Inventory inventory = new Inventory();
     private int health;  // Player's health, starting at 100
     private int score;   // Player's score, starting at 0
 
     public Player() {
-        this.inventory = new ArrayList<>();
         this.health = 100;  // Default starting health
         this.score = 0;     // Default starting score
     }
 
+    Player(List<String> inventory, int health, int score) {
+        inventory.forEach(this.inventory::add);
+        this.health = health;
+        this.score = score;
+    }
+
     public void addItem(String item) {
         if (item == null || item.trim().isEmpty()) {
             throw new IllegalArgumentException("Item cannot be null or empty");
@@ -25,14 +25,24 @@ public class Player implements Serializable {
         inventory.add(item);
     }
 
+    // Removes one of the item (the "-item" inventory update)
     public void removeItem(String item) {
         if (item != null) {
             inventory.remove(item);
         }
     }
 
+    public boolean hasItem(String item) {
+        return inventory.contains(item);
+    }
+
+    // Read-only live view, one element per unit held; copy it if it must outlive the next turn
     public List<String> getInventory() {
-        return new ArrayList<>(inventory);
+        return inventory.asList();
+    }
+
+    public Inventory getItems() {
+        return inventory;
     }
 
     // Health methods
@@ -0,0 +1,52 @@
+package com.explorer.game;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class PrefetchStats {
+    private static final LongAdder started = Metrics.counter("grok_prefetch_total", "outcome", "started");
+    private static final LongAdder hits = Metrics.counter("grok_prefetch_total", "outcome", "hits");
+    private static final LongAdder misses = Metrics.counter("grok_prefetch_total", "outcome", "misses");
+    private static final LongAdder cancelled = Metrics.counter("grok_prefetch_total", "outcome", "cancelled");
+
+    private PrefetchStats() {
+    }
+
+    static void recordStarted() {
+        started.increment();
+    }
+
+    static void recordHit() {
+        hits.increment();
+    }
+
+    static void recordMiss() {
+        misses.increment();
+    }
+
+    static void recordCancelled(int count) {
+        cancelled.add(count);
+    }
+
+    public static long started() {
+        return started.sum();
+    }
+
+    public static long hits() {
+        return hits.sum();
+    }
+
+    public static long misses() {
+        return misses.sum();
+    }
+
+    public static long cancelled() {
+        return cancelled.sum();
+    }
+
+    // Share of predefined-option turns answered by a speculative generation
+    public static double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+}
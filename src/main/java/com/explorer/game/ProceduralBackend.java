@@ -0,0 +1,136 @@
+package com.explorer.game;
+
+import org.json.JSONObject;
+
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Offline, deterministic room generator: the same prompt and seed always produce the same room
+public class ProceduralBackend implements BatchStoryBackend {
+    private static final Pattern THEME = Pattern.compile("theme is: '([^']*)'");
+    private static final Pattern CHOICE = Pattern.compile("(?:option|item|action): '([^']*)'");
+    private static final int STREAM_CHUNK = 16;
+
+    private static final String[] PLACES = {
+            "a narrow passage", "a collapsed hall", "a quiet chamber", "an overgrown courtyard",
+            "a flooded tunnel", "a crumbling stairwell", "a forgotten storeroom", "a wide gallery"
+    };
+    private static final String[] DETAILS = {
+            "Dust hangs in the air", "Something skitters in the dark", "Faint light leaks through a crack",
+            "The walls are scored with old markings", "A cold draft carries a distant echo",
+            "Water drips steadily somewhere close", "The floor is littered with debris"
+    };
+    private static final String[] ACTIONS = {
+            "search the room", "follow the draft", "examine the markings", "listen carefully",
+            "climb higher", "press onward", "double back", "rest for a moment"
+    };
+    private static final String[] ITEMS = {"torch", "rope", "map", "key", "lens", "coin", "flint"};
+
+    private final long seed;
+    private final Duration latency;
+
+    public ProceduralBackend(long seed, Duration latency) {
+        this.seed = seed;
+        this.latency = latency;
+    }
+
+    public static ProceduralBackend fromConfig() {
+        return new ProceduralBackend(Config.getInt("story.procedural.seed", 42),
+                Duration.ofMillis(Config.getInt("story.procedural.latencyMs", 0)));
+    }
+
+    @Override
+    public String generate(StoryRequest request, Consumer<String> contentListener) throws InterruptedIOException {
+        simulateLatency();
+        String content = roomFor(request.prompt());
+        if (contentListener != null) {
+            for (int i = 0; i < content.length(); i += STREAM_CHUNK) {
+                contentListener.accept(content.substring(i, Math.min(content.length(), i + STREAM_CHUNK)));
+            }
+        }
+        return content;
+    }
+
+    // One simulated round trip for the whole batch, like a single upstream call
+    @Override
+    public List<String> generateBatch(List<StoryRequest> requests) throws InterruptedIOException {
+        simulateLatency();
+        List<String> rooms = new ArrayList<>(requests.size());
+        for (StoryRequest request : requests) {
+            rooms.add(roomFor(request.prompt()));
+        }
+        return rooms;
+    }
+
+    private void simulateLatency() throws InterruptedIOException {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Generation cancelled");
+            }
+        }
+    }
+
+    String roomFor(String prompt) {
+        SplittableRandom random = new SplittableRandom(seed ^ fingerprint(prompt));
+        String theme = group(THEME, prompt, "the unknown");
+        String choice = group(CHOICE, prompt, null);
+
+        StringBuilder description = new StringBuilder();
+        if (choice != null) {
+            description.append("You ").append(choice.toLowerCase()).append(". ");
+        }
+        description.append("Deep within ").append(theme).append(", you find yourself in ")
+                .append(pick(random, PLACES)).append(". ")
+                .append(pick(random, DETAILS)).append('.');
+
+        String first = pick(random, ACTIONS);
+        String second = pick(random, ACTIONS);
+        while (second.equals(first)) {
+            second = pick(random, ACTIONS);
+        }
+
+        // Hand-built so "description" streams first, as it does from the real model
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"description\": ").append(JSONObject.quote(description.toString()))
+                .append(", \"options\": [").append(JSONObject.quote(first)).append(", ")
+                .append(JSONObject.quote(second)).append(", \"q. Quit\"]");
+        int roll = random.nextInt(10);
+        if (roll < 3) {
+            json.append(", \"inventoryUpdates\": [").append(JSONObject.quote(pick(random, ITEMS))).append(']');
+        }
+        if (roll == 9) {
+            json.append(", \"healthUpdates\": ").append(-1 - random.nextInt(10));
+        }
+        json.append(", \"scoreUpdates\": ").append(random.nextInt(6)).append('}');
+        return json.toString();
+    }
+
+    private static String group(Pattern pattern, String text, String fallback) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : fallback;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // 64-bit FNV-1a so distinct prompts rarely share a seed
+    private static long fingerprint(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
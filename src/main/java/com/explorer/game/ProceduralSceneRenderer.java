@@ -0,0 +1,153 @@
+package com.explorer.game;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.RadialGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Offline, deterministic scene painter: keywords in the description pick the palette and the props
+// (water, trees, towers, stars, firelight), and a hash of it places them, so a room always looks the same
+public class ProceduralSceneRenderer implements SceneImageProvider {
+    private static final String[] DARK = {"cave", "dark", "tunnel", "passage", "underground", "shadow", "crypt", "night"};
+    private static final String[] GREEN = {"jungle", "forest", "vine", "tree", "overgrown", "moss", "garden", "leaf"};
+    private static final String[] WATER = {"water", "river", "flood", "lake", "sea", "drip", "stream", "pool"};
+    private static final String[] FIRE = {"fire", "torch", "lava", "flame", "ember", "glow", "lantern", "light"};
+    private static final String[] STONE = {"castle", "tower", "hall", "throne", "ruin", "temple", "wall", "stair"};
+    private static final String[] SPACE = {"space", "star", "station", "planet", "orbit", "void", "ship"};
+
+    private final int width;
+    private final int height;
+
+    public ProceduralSceneRenderer(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Scene size must be positive");
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public BufferedImage render(String description) {
+        String text = description.toLowerCase(Locale.ROOT);
+        SplittableRandom random = new SplittableRandom(text.hashCode() * 0x9E3779B97F4A7C15L);
+        boolean dark = mentions(text, DARK);
+        boolean space = mentions(text, SPACE);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int horizon = height * (55 + random.nextInt(15)) / 100;
+            Color skyTop = space ? new Color(5, 5, 20) : dark ? new Color(20, 18, 30) : new Color(90, 140, 200);
+            Color skyBottom = space ? new Color(30, 20, 60) : dark ? new Color(60, 50, 60) : new Color(200, 220, 235);
+            g.setPaint(new GradientPaint(0, 0, skyTop, 0, horizon, skyBottom));
+            g.fillRect(0, 0, width, horizon);
+            if (space || dark) {
+                paintStars(g, random, horizon, space ? 120 : 25);
+            }
+            paintHills(g, random, horizon, dark ? new Color(45, 40, 50) : new Color(110, 120, 140));
+            if (mentions(text, STONE)) {
+                paintTowers(g, random, horizon, dark ? new Color(35, 32, 40) : new Color(95, 90, 100));
+            }
+            Color ground = mentions(text, GREEN) ? new Color(40, 95, 45) : dark ? new Color(50, 42, 38) : new Color(130, 110, 80);
+            g.setPaint(new GradientPaint(0, horizon, ground, 0, height, ground.darker().darker()));
+            g.fillRect(0, horizon, width, height - horizon);
+            if (mentions(text, WATER)) {
+                paintWater(g, random, horizon);
+            }
+            if (mentions(text, GREEN)) {
+                paintTrees(g, random, horizon);
+            }
+            if (mentions(text, FIRE)) {
+                paintGlow(g, random, horizon);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static boolean mentions(String text, String[] words) {
+        for (String word : words) {
+            if (text.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void paintStars(Graphics2D g, SplittableRandom random, int horizon, int count) {
+        for (int i = 0; i < count; i++) {
+            int shade = 150 + random.nextInt(106);
+            g.setColor(new Color(shade, shade, Math.min(255, shade + 20)));
+            int size = 1 + random.nextInt(2);
+            g.fillRect(random.nextInt(width), random.nextInt(horizon), size, size);
+        }
+    }
+
+    private void paintHills(Graphics2D g, SplittableRandom random, int horizon, Color color) {
+        Polygon hills = new Polygon();
+        hills.addPoint(0, horizon);
+        int step = Math.max(1, width / 8);
+        for (int x = 0; x <= width; x += step) {
+            hills.addPoint(x, horizon - random.nextInt(Math.max(1, horizon / 3)));
+        }
+        hills.addPoint(width, horizon);
+        g.setColor(color);
+        g.fillPolygon(hills);
+    }
+
+    private void paintTowers(Graphics2D g, SplittableRandom random, int horizon, Color color) {
+        g.setColor(color);
+        int towers = 2 + random.nextInt(3);
+        for (int i = 0; i < towers; i++) {
+            int towerWidth = width / 14 + random.nextInt(width / 14 + 1);
+            int towerHeight = horizon / 3 + random.nextInt(horizon / 2 + 1);
+            int x = random.nextInt(Math.max(1, width - towerWidth));
+            g.fillRect(x, horizon - towerHeight, towerWidth, towerHeight);
+            int merlon = Math.max(2, towerWidth / 5);
+            for (int m = 0; m < towerWidth; m += merlon * 2) {
+                g.fillRect(x + m, horizon - towerHeight - merlon, merlon, merlon);
+            }
+        }
+    }
+
+    private void paintWater(Graphics2D g, SplittableRandom random, int horizon) {
+        int top = horizon + (height - horizon) / 3;
+        g.setPaint(new GradientPaint(0, top, new Color(60, 110, 170), 0, height, new Color(20, 45, 90)));
+        g.fillRect(0, top, width, height - top);
+        g.setColor(new Color(180, 210, 240));
+        for (int i = 0; i < 12; i++) {
+            int y = top + random.nextInt(Math.max(1, height - top));
+            int x = random.nextInt(width);
+            g.drawLine(x, y, x + width / 20 + random.nextInt(width / 10 + 1), y);
+        }
+    }
+
+    private void paintTrees(Graphics2D g, SplittableRandom random, int horizon) {
+        int trees = 4 + random.nextInt(6);
+        for (int i = 0; i < trees; i++) {
+            int x = random.nextInt(width);
+            int base = horizon + random.nextInt(Math.max(1, (height - horizon) / 2));
+            int treeHeight = height / 5 + random.nextInt(height / 5 + 1);
+            g.setColor(new Color(70, 50, 30));
+            g.fillRect(x - 2, base - treeHeight / 3, 4, treeHeight / 3);
+            g.setColor(new Color(20 + random.nextInt(30), 90 + random.nextInt(60), 30 + random.nextInt(30)));
+            g.fillOval(x - treeHeight / 3, base - treeHeight, treeHeight * 2 / 3, treeHeight * 2 / 3 + 4);
+        }
+    }
+
+    private void paintGlow(Graphics2D g, SplittableRandom random, int horizon) {
+        float x = random.nextInt(width);
+        float y = horizon + random.nextInt(Math.max(1, (height - horizon) / 2));
+        float radius = Math.max(8, height / 3f);
+        g.setPaint(new RadialGradientPaint(x, y, radius, new float[]{0f, 1f},
+                new Color[]{new Color(255, 170, 60, 200), new Color(255, 120, 30, 0)}));
+        g.fillOval((int) (x - radius), (int) (y - radius), (int) (radius * 2), (int) (radius * 2));
+    }
+}
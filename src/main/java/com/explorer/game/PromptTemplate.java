@@ -0,0 +1,91 @@
+package com.explorer.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A prompt template split once into literal text and numbered slots (the %N$s / %N$d placeholders that
+// String.formatted understands), so a turn can append it into a reused buffer instead of re-parsing the
+// format string and building intermediate strings every time.
+public final class PromptTemplate {
+    public static final int NO_SLOT = 0;
+
+    private final String text;
+    private final String[] literals;
+    private final int[] slots;
+    private final int literalLength;
+
+    private PromptTemplate(String text, String[] literals, int[] slots) {
+        this.text = text;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static PromptTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 < text.length() && text.charAt(i + 1) == '%') {
+                literal.append('%');
+                i += 2;
+                continue;
+            }
+            int dollar = text.indexOf('$', i);
+            if (dollar < 0 || dollar + 1 >= text.length() || "sd".indexOf(text.charAt(dollar + 1)) < 0) {
+                throw new IllegalArgumentException("Unsupported placeholder at " + i + " in prompt template");
+            }
+            int slot;
+            try {
+                slot = Integer.parseInt(text, i + 1, dollar, 10);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Unsupported placeholder at " + i + " in prompt template", e);
+            }
+            if (slot <= NO_SLOT) {
+                throw new IllegalArgumentException("Slot numbers start at 1");
+            }
+            literals.add(literal.toString());
+            slots.add(slot);
+            literal.setLength(0);
+            i = dollar + 2;
+        }
+        literals.add(literal.toString());
+        slots.add(NO_SLOT);
+        return new PromptTemplate(text, literals.toArray(new String[0]),
+                slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // The original format string, for callers that still want String.formatted
+    public String text() {
+        return text;
+    }
+
+    // Segment i is literal(i) followed by the value of slot(i); the last segment's slot is NO_SLOT
+    public int segments() {
+        return literals.length;
+    }
+
+    public String literal(int segment) {
+        return literals[segment];
+    }
+
+    public int slot(int segment) {
+        return slots[segment];
+    }
+
+    // Characters of fixed text, excluding every slot value
+    public int literalLength() {
+        return literalLength;
+    }
+}
@@ -0,0 +1,118 @@
+package com.explorer.game;
+
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Records prompt/payload pairs from a live backend to a JSON-lines file, or serves them back without one.
+// Each line also carries the session, wall-clock start and latency of the call, which is what the
+// benchmarks' replay load test paces itself by. story.record.prompts=false stores only the prompt hash.
+public class RecordReplayBackend implements StoryBackend, AutoCloseable {
+    private final StoryBackend delegate;
+    private final BufferedWriter recorder;
+    private final boolean recordPrompts = Boolean.parseBoolean(Config.get("story.record.prompts", "true"));
+    private final Map<String, List<String>> recorded;
+    private final Map<String, Integer> cursors = new HashMap<>();
+
+    private RecordReplayBackend(StoryBackend delegate, BufferedWriter recorder, Map<String, List<String>> recorded) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+        this.recorded = recorded;
+    }
+
+    public static RecordReplayBackend recording(StoryBackend delegate, Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new RecordReplayBackend(delegate, writer, null);
+    }
+
+    // Prompts missing from the recording fail, or go to fallback when one is given
+    public static RecordReplayBackend replaying(Path file, StoryBackend fallback) throws IOException {
+        Map<String, List<String>> recorded = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JSONObject entry = new JSONObject(line);
+            recorded.computeIfAbsent(entry.getString("key"), k -> new ArrayList<>()).add(entry.getString("content"));
+        }
+        return new RecordReplayBackend(fallback, null, recorded);
+    }
+
+    @Override
+    public String generate(StoryRequest request, Consumer<String> contentListener) throws IOException {
+        String key = ResponseCache.key(request.prompt());
+        if (recorded != null) {
+            String content = replay(key);
+            if (content != null) {
+                if (contentListener != null) {
+                    contentListener.accept(content);
+                }
+                return content;
+            }
+            if (delegate == null) {
+                throw new IOException("No recorded response for prompt " + key);
+            }
+            return delegate.generate(request, contentListener);
+        }
+
+        long startedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        String content = delegate.generate(request, contentListener);
+        long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+        JSONObject entry = new JSONObject()
+                .put("session", request.sessionId())
+                .put("startMs", startedAt)
+                .put("key", key)
+                .put("content", content)
+                .put("latencyMs", latencyMillis);
+        if (recordPrompts) {
+            entry.put("prompt", request.prompt());
+        }
+        String line = entry.toString();
+        synchronized (recorder) {
+            recorder.write(line);
+            recorder.newLine();
+            recorder.flush();
+        }
+        return content;
+    }
+
+    // Repeated prompts cycle through every payload recorded for them
+    private String replay(String key) {
+        List<String> contents = recorded.get(key);
+        if (contents == null) {
+            return null;
+        }
+        synchronized (cursors) {
+            int cursor = cursors.getOrDefault(key, 0);
+            cursors.put(key, cursor + 1);
+            return contents.get(cursor % contents.size());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Room payloads keyed by a hash of the normalized prompt, with an optional on-disk tier that survives restarts
+public final class ResponseCache {
+    private static final String SUFFIX = ".room";
+    private static volatile ResponseCache shared;
+
+    private record Entry(String content, long storedAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path directory;
+    private final int maxDiskEntries;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(int maxEntries, Duration ttl, Path directory, int maxDiskEntries) {
+        if (maxEntries <= 0 || maxDiskEntries <= 0) {
+            throw new IllegalArgumentException("Cache sizes must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.directory = directory;
+        this.maxDiskEntries = maxDiskEntries;
+        if (directory != null) {
+            loadDiskIndex();
+        }
+    }
+
+    // Null when grok.cache.enabled=false
+    public static ResponseCache shared() {
+        ResponseCache cache = shared;
+        if (cache == null) {
+            synchronized (ResponseCache.class) {
+                cache = shared;
+                if (cache == null && Boolean.parseBoolean(Config.get("grok.cache.enabled", "true"))) {
+                    String dir = Config.get("grok.cache.dir", null);
+                    cache = new ResponseCache(
+                            Config.getInt("grok.cache.maxEntries", 1_000),
+                            Duration.ofMinutes(Config.getInt("grok.cache.ttlMinutes", 24 * 60)),
+                            dir == null ? null : Path.of(dir),
+                            Config.getInt("grok.cache.disk.maxEntries", 10_000));
+                    ResponseCache registered = cache;
+                    // hits() includes disk hits
+                    Metrics.counter("grok_cache_lookups_total", () -> registered.hits() - registered.diskHits(),
+                            "result", "memory_hit");
+                    Metrics.counter("grok_cache_lookups_total", registered::diskHits, "result", "disk_hit");
+                    Metrics.counter("grok_cache_lookups_total", registered::misses, "result", "miss");
+                    Metrics.counter("grok_cache_evictions_total", registered::evictions);
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    public static String key(String prompt) {
+        String normalized = prompt.strip().replaceAll("\\s+", " ").toLowerCase();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    public String get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (!expired(entry.storedAtMillis(), now)) {
+                    hits.increment();
+                    return entry.content();
+                }
+                memory.remove(key);
+                evictions.increment();
+            }
+        }
+        Entry fromDisk = readDisk(key, now);
+        if (fromDisk != null) {
+            hits.increment();
+            diskHits.increment();
+            putMemory(key, fromDisk);
+            return fromDisk.content();
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, String content) {
+        Entry entry = new Entry(content, System.currentTimeMillis());
+        putMemory(key, entry);
+        writeDisk(key, entry);
+    }
+
+    private void putMemory(String key, Entry entry) {
+        synchronized (memory) {
+            memory.put(key, entry);
+            Iterator<Map.Entry<String, Entry>> eldest = memory.entrySet().iterator();
+            while (memory.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean expired(long storedAtMillis, long now) {
+        return now - storedAtMillis > ttlMillis;
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private void loadDiskIndex() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                        .sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                        .forEach(path -> {
+                            String name = path.getFileName().toString();
+                            diskIndex.put(name.substring(0, name.length() - SUFFIX.length()), path.toFile().lastModified());
+                        });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open response cache at " + directory, e);
+        }
+    }
+
+    // File layout: first line is the store time in epoch millis, the rest is the room payload
+    private Entry readDisk(String key, long now) {
+        if (directory == null) {
+            return null;
+        }
+        synchronized (diskIndex) {
+            if (!diskIndex.containsKey(key)) {
+                return null;
+            }
+        }
+        try {
+            String raw = Files.readString(file(key), StandardCharsets.UTF_8);
+            int newline = raw.indexOf('\n');
+            long storedAt = Long.parseLong(raw.substring(0, newline));
+            if (expired(storedAt, now)) {
+                deleteDisk(key);
+                evictions.increment();
+                return null;
+            }
+            return new Entry(raw.substring(newline + 1), storedAt);
+        } catch (IOException | RuntimeException e) {
+            deleteDisk(key);
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(temp, entry.storedAtMillis() + "\n" + entry.content(), StandardCharsets.UTF_8);
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            return; // The disk tier is best effort; the memory tier still holds the entry
+        }
+        String eldest = null;
+        synchronized (diskIndex) {
+            diskIndex.remove(key);
+            diskIndex.put(key, entry.storedAtMillis());
+            if (diskIndex.size() > maxDiskEntries) {
+                eldest = diskIndex.keySet().iterator().next();
+            }
+        }
+        if (eldest != null) {
+            deleteDisk(eldest);
+            evictions.increment();
+        }
+    }
+
+    private void deleteDisk(String key) {
+        synchronized (diskIndex) {
+            diskIndex.remove(key);
+        }
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            // Left for the next startup scan
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long diskHits() {
+        return diskHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+}
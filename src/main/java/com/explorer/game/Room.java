@@ -1,11 +1,6 @@
 package com.explorer.game;
 
-import java.io.Serial;
-import java.io.Serializable;
-
-public class Room implements Serializable {
-    @Serial
-    private static final long serialVersionUID = 1L;
+public class Room {
     private final String description;
     private final String[] options;
 
@@ -0,0 +1,180 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads chat-completion responses and room payloads with JsonPullParser instead of building org.json trees.
+// Room payloads may be wrapped in code fences or prose: everything before the first '{' and after the
+// matching '}' is ignored.
+public final class RoomParser {
+    private RoomParser() {
+    }
+
+    // Message content plus the usage block's token counts (-1 when absent); reads the whole envelope, since
+    // the API puts usage after choices. finishReason is "length" when max_tokens cut the content off.
+    public record Completion(String content, int promptTokens, int completionTokens, String finishReason) {
+        public boolean truncated() {
+            return "length".equals(finishReason);
+        }
+    }
+
+    private record Choice(String content, String finishReason) {
+    }
+
+    public static Completion completion(InputStream body) throws IOException {
+        JsonPullParser parser = envelopeParser(body);
+        if (parser.next() != JsonPullParser.Token.START_OBJECT) {
+            throw new IOException("Response is not a JSON object");
+        }
+        Choice choice = null;
+        int promptTokens = -1;
+        int completionTokens = -1;
+        while (parser.next() == JsonPullParser.Token.FIELD_NAME) {
+            if (parser.textEquals("choices") && choice == null) {
+                JsonPullParser.Token token = parser.next();
+                if (token != JsonPullParser.Token.START_ARRAY) {
+                    parser.skipValue(token);
+                    continue;
+                }
+                while ((token = parser.next()) != JsonPullParser.Token.END_ARRAY) {
+                    if (choice == null && token == JsonPullParser.Token.START_OBJECT) {
+                        choice = choice(parser);
+                    } else {
+                        parser.skipValue(token);
+                    }
+                }
+            } else if (parser.textEquals("usage")) {
+                JsonPullParser.Token token = parser.next();
+                if (token != JsonPullParser.Token.START_OBJECT) {
+                    parser.skipValue(token);
+                    continue;
+                }
+                while (parser.next() == JsonPullParser.Token.FIELD_NAME) {
+                    if (parser.textEquals("prompt_tokens")) {
+                        promptTokens = readInt(parser);
+                    } else if (parser.textEquals("completion_tokens")) {
+                        completionTokens = readInt(parser);
+                    } else {
+                        parser.skipValue(parser.next());
+                    }
+                }
+            } else {
+                parser.skipValue(parser.next());
+            }
+        }
+        if (choice == null || choice.content() == null) {
+            throw new IOException("Response has no choices[0].message.content");
+        }
+        return new Completion(choice.content(), promptTokens, completionTokens, choice.finishReason());
+    }
+
+    // message.content and finish_reason of a choice object whose START_OBJECT was just read; consumes the whole choice
+    private static Choice choice(JsonPullParser parser) throws IOException {
+        String content = null;
+        String finishReason = null;
+        while (parser.next() == JsonPullParser.Token.FIELD_NAME) {
+            boolean message = parser.textEquals("message");
+            boolean finish = parser.textEquals("finish_reason");
+            JsonPullParser.Token token = parser.next();
+            if (finish && token == JsonPullParser.Token.STRING) {
+                finishReason = parser.stringValue();
+                continue;
+            }
+            if (!message || token != JsonPullParser.Token.START_OBJECT) {
+                parser.skipValue(token);
+                continue;
+            }
+            while (parser.next() == JsonPullParser.Token.FIELD_NAME) {
+                if (parser.textEquals("content") && content == null) {
+                    content = requireString(parser, "content");
+                } else {
+                    parser.skipValue(parser.next());
+                }
+            }
+        }
+        return new Choice(content, finishReason);
+    }
+
+    public static RoomUpdate parseRoom(CharSequence content) throws IOException {
+        return parseRoom(JsonPullParser.charSequenceSource(content));
+    }
+
+    private static RoomUpdate parseRoom(JsonPullParser.Source source) throws IOException {
+        JsonPullParser parser = new JsonPullParser(source);
+        if (!parser.skipTo('{')) {
+            throw new IOException("Room payload contains no JSON object");
+        }
+        parser.next();
+
+        String description = null;
+        String[] options = null;
+        List<String> inventoryUpdates = List.of();
+        int healthDelta = 0;
+        int scoreDelta = 0;
+        JsonPullParser.Token token;
+        while ((token = parser.next()) == JsonPullParser.Token.FIELD_NAME) {
+            if (parser.textEquals("description")) {
+                description = requireString(parser, "description");
+            } else if (parser.textEquals("options")) {
+                options = readStrings(parser, "options").toArray(new String[0]);
+            } else if (parser.textEquals("inventoryUpdates")) {
+                inventoryUpdates = readStrings(parser, "inventoryUpdates");
+            } else if (parser.textEquals("healthUpdates")) {
+                healthDelta = readInt(parser);
+            } else if (parser.textEquals("scoreUpdates")) {
+                scoreDelta = readInt(parser);
+            } else {
+                parser.skipValue(parser.next());
+            }
+        }
+        if (token != JsonPullParser.Token.END_OBJECT) {
+            throw new IOException("Malformed room payload");
+        }
+        if (description == null || options == null) {
+            throw new IOException("Room payload is missing " + (description == null ? "'description'" : "'options'"));
+        }
+        return new RoomUpdate(new Room(description, options), new StateDelta(inventoryUpdates, healthDelta, scoreDelta));
+    }
+
+    private static JsonPullParser envelopeParser(InputStream body) {
+        return new JsonPullParser(JsonPullParser.utf8Source(body));
+    }
+
+    // Leaves the parser just after the "content" field name of the first choice's message
+    private static String requireString(JsonPullParser parser, String field) throws IOException {
+        if (parser.next() != JsonPullParser.Token.STRING) {
+            throw new IOException("Room field '" + field + "' is not a string");
+        }
+        return parser.stringValue();
+    }
+
+    private static List<String> readStrings(JsonPullParser parser, String field) throws IOException {
+        JsonPullParser.Token token = parser.next();
+        if (token == JsonPullParser.Token.NULL) {
+            return List.of();
+        }
+        if (token != JsonPullParser.Token.START_ARRAY) {
+            throw new IOException("Room field '" + field + "' is not an array");
+        }
+        List<String> values = new ArrayList<>(4);
+        while ((token = parser.next()) != JsonPullParser.Token.END_ARRAY) {
+            if (token != JsonPullParser.Token.STRING) {
+                throw new IOException("Room field '" + field + "' must contain strings");
+            }
+            values.add(parser.stringValue());
+        }
+        return values;
+    }
+
+    // Mirrors org.json optInt: numbers and numeric strings count, anything else is 0
+    private static int readInt(JsonPullParser parser) throws IOException {
+        JsonPullParser.Token token = parser.next();
+        if (token == JsonPullParser.Token.NUMBER || token == JsonPullParser.Token.STRING) {
+            return parser.intValue(0);
+        }
+        parser.skipValue(token);
+        return 0;
+    }
+}
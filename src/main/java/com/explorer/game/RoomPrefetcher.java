@@ -0,0 +1,69 @@
+package com.explorer.game;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+// Speculatively generates the rooms behind the options currently on screen
+final class RoomPrefetcher {
+    // Caps speculative calls across every game in the process
+    private static final Semaphore PERMITS = new Semaphore(Config.getInt("grok.prefetch.maxInFlight", 16));
+
+    interface Generator {
+        RoomUpdate generate(String prompt) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final int maxOptions;
+    private final Map<String, Future<RoomUpdate>> pending = new HashMap<>();
+    private Room room;
+
+    RoomPrefetcher(ExecutorService executor, int maxOptions) {
+        this.executor = executor;
+        this.maxOptions = maxOptions;
+    }
+
+    synchronized void start(Room from, Map<String, String> promptsByOption, Generator generator) {
+        cancelAll();
+        room = from;
+        for (Map.Entry<String, String> entry : promptsByOption.entrySet()) {
+            if (pending.size() >= maxOptions || !PERMITS.tryAcquire()) {
+                break;
+            }
+            String prompt = entry.getValue();
+            FutureTask<RoomUpdate> task = new FutureTask<>(() -> generator.generate(prompt)) {
+                @Override
+                protected void done() {
+                    PERMITS.release();
+                }
+            };
+            pending.put(entry.getKey(), task);
+            executor.execute(task);
+            PrefetchStats.recordStarted();
+        }
+    }
+
+    // Hands over the generation for the chosen option and cancels the losing branches
+    synchronized Future<RoomUpdate> claim(Room from, String choice) {
+        Future<RoomUpdate> claimed = from == room ? pending.remove(choice) : null;
+        cancelAll();
+        return claimed;
+    }
+
+    synchronized void cancelAll() {
+        int cancelled = 0;
+        for (Future<RoomUpdate> future : pending.values()) {
+            if (future.cancel(true)) {
+                cancelled++;
+            }
+        }
+        if (cancelled > 0) {
+            PrefetchStats.recordCancelled(cancelled);
+        }
+        pending.clear();
+        room = null;
+    }
+}
@@ -0,0 +1,4 @@
+package com.explorer.game;
+
+public record RoomUpdate(Room room, StateDelta delta) {
+}
@@ -0,0 +1,267 @@
+package com.explorer.game;
+
+import com.explorer.game.legacy.LegacySaveFormat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Save layout: magic "GIAS", version byte, flags byte, then the (optionally deflated) body followed by
+// a CRC32 of the body. Strings are varint length-prefixed UTF-8. Version 2 appends the world graph;
+// version 1 saves load with an empty one.
+public final class SaveCodec {
+    static final int MAGIC = 0x47494153;
+    static final int VERSION = 2;
+    private static final int WORLD_VERSION = 2;
+    private static final int FLAG_DEFLATE = 1;
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SaveCodec() {
+    }
+
+    public static boolean compressByDefault() {
+        return Boolean.parseBoolean(Config.get("grok.save.compress", "true"));
+    }
+
+    // Written to a temp file, forced to disk, then renamed over the target so a crash never leaves half a save
+    public static void save(GameSnapshot snapshot, Path path, boolean compress) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            write(snapshot, out, compress);
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Also reads the Java-serialization saves written by earlier versions
+    public static GameSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            in.mark(4);
+            DataInputStream header = new DataInputStream(in);
+            int magic = header.readInt();
+            if (magic == MAGIC) {
+                return readBody(in);
+            }
+            if (magic >>> 16 == JAVA_SERIALIZATION_MAGIC) {
+                in.reset();
+                return LegacySaveFormat.read(in);
+            }
+            throw new StreamCorruptedException("Not a Lost Explorer save file");
+        }
+    }
+
+    public static void write(GameSnapshot snapshot, OutputStream out, boolean compress) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(compress ? FLAG_DEFLATE : 0);
+        header.flush();
+
+        Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        try {
+            OutputStream raw = compress ? new DeflaterOutputStream(out, deflater, BUFFER_SIZE) : out;
+            CheckedOutputStream checked = new CheckedOutputStream(raw, new CRC32());
+            BufferedOutputStream buffered = new BufferedOutputStream(checked, BUFFER_SIZE);
+            writeBody(snapshot, new DataOutputStream(buffered));
+            buffered.flush();
+            new DataOutputStream(raw).writeInt((int) checked.getChecksum().getValue());
+            if (raw instanceof DeflaterOutputStream deflating) {
+                deflating.finish();
+            }
+            out.flush();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    public static GameSnapshot read(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a Lost Explorer save file");
+        }
+        return readBody(in);
+    }
+
+    private static GameSnapshot readBody(InputStream in) throws IOException {
+        int version = in.read();
+        int flags = in.read();
+        if (version < 0 || flags < 0) {
+            throw new EOFException("Truncated save header");
+        }
+        if (version > VERSION) {
+            throw new StreamCorruptedException("Save was written by a newer version (format " + version + ")");
+        }
+        Inflater inflater = (flags & FLAG_DEFLATE) != 0 ? new Inflater() : null;
+        try {
+            // Buffer above the inflater: the body is read in small pieces and single-byte inflates are slow
+            InputStream raw = inflater != null
+                    ? new BufferedInputStream(new InflaterInputStream(in, inflater, BUFFER_SIZE), BUFFER_SIZE)
+                    : in;
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            GameSnapshot snapshot = readBody(new DataInputStream(checked), version);
+            int expected = new DataInputStream(raw).readInt();
+            if (expected != (int) checked.getChecksum().getValue()) {
+                throw new StreamCorruptedException("Save file is corrupted (checksum mismatch)");
+            }
+            return snapshot;
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    private static void writeBody(GameSnapshot snapshot, DataOutputStream out) throws IOException {
+        writeString(out, snapshot.sessionId());
+        writeString(out, snapshot.theme());
+        writeString(out, snapshot.lastChoice());
+        out.writeBoolean(snapshot.running());
+        out.writeInt(snapshot.health());
+        out.writeInt(snapshot.score());
+        writeStrings(out, snapshot.inventory());
+        writeString(out, snapshot.currentRoom().getDescription());
+        writeStrings(out, List.of(snapshot.currentRoom().getOptions()));
+        writeStrings(out, snapshot.history());
+        writeWorld(out, snapshot.world());
+    }
+
+    private static GameSnapshot readBody(DataInputStream in, int version) throws IOException {
+        String sessionId = readString(in);
+        String theme = readString(in);
+        String lastChoice = readString(in);
+        boolean running = in.readBoolean();
+        int health = in.readInt();
+        int score = in.readInt();
+        List<String> inventory = readStrings(in);
+        String description = readString(in);
+        String[] options = readStrings(in).toArray(new String[0]);
+        List<String> history = readStrings(in);
+        WorldGraph.State world = version >= WORLD_VERSION ? readWorld(in) : WorldGraph.State.EMPTY;
+        return new GameSnapshot(sessionId, theme, lastChoice, running, health, score, inventory,
+                new Room(description, options), history, world);
+    }
+
+    // IDs are written +1 so NONE fits in a varint
+    private static void writeWorld(DataOutputStream out, WorldGraph.State world) throws IOException {
+        writeVarInt(out, world.nextId());
+        writeVarInt(out, world.currentId() + 1);
+        writeVarInt(out, world.rooms().size());
+        for (WorldGraph.RoomState room : world.rooms()) {
+            writeVarInt(out, room.id());
+            writeString(out, room.room().getDescription());
+            writeStrings(out, List.of(room.room().getOptions()));
+            writeVarInt(out, room.backId() + 1);
+            writeVarInt(out, room.edges().size());
+            for (Map.Entry<String, Integer> edge : room.edges().entrySet()) {
+                writeString(out, edge.getKey());
+                writeVarInt(out, edge.getValue());
+            }
+        }
+    }
+
+    private static WorldGraph.State readWorld(DataInputStream in) throws IOException {
+        int nextId = readVarInt(in);
+        int currentId = readVarInt(in) - 1;
+        int count = readVarInt(in);
+        List<WorldGraph.RoomState> rooms = new ArrayList<>(Math.min(count, 1 << 16));
+        for (int i = 0; i < count; i++) {
+            int id = readVarInt(in);
+            String description = readString(in);
+            String[] options = readStrings(in).toArray(new String[0]);
+            int backId = readVarInt(in) - 1;
+            int edgeCount = readVarInt(in);
+            Map<String, Integer> edges = new LinkedHashMap<>();
+            for (int e = 0; e < edgeCount; e++) {
+                String choice = readString(in);
+                edges.put(choice, readVarInt(in));
+            }
+            rooms.add(new WorldGraph.RoomState(id, new Room(description, options), backId, edges));
+        }
+        return new WorldGraph.State(nextId, currentId, rooms);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        writeVarInt(out, values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        List<String> values = new ArrayList<>(Math.min(count, 1 << 16));
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new StreamCorruptedException("Negative length in save file");
+                }
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint in save file");
+    }
+}
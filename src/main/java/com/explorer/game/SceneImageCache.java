@@ -0,0 +1,212 @@
+package com.explorer.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Scaled scene images, least recently used first: a memory tier capped in decoded bytes and an optional
+// PNG directory capped in files, so each room is painted once and survives restarts
+public final class SceneImageCache {
+    private static final Logger log = LoggerFactory.getLogger(SceneImageCache.class);
+    private static final String SUFFIX = ".png";
+
+    private final long maxBytes;
+    private final Path directory;
+    private final int maxDiskEntries;
+    private final LinkedHashMap<String, BufferedImage> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SceneImageCache(long maxBytes, Path directory, int maxDiskEntries) {
+        if (maxBytes <= 0 || maxDiskEntries <= 0) {
+            throw new IllegalArgumentException("Cache sizes must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.maxDiskEntries = maxDiskEntries;
+        // Pictures are optional: an unusable directory leaves the cache in memory only
+        Path usable = directory;
+        if (directory != null) {
+            try {
+                loadDiskIndex(directory);
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Scene image cache at {} is unavailable, keeping pictures in memory only", directory, e);
+                diskIndex.clear();
+                usable = null;
+            }
+        }
+        this.directory = usable;
+    }
+
+    // Memory tier only, so it is safe on the EDT; null on a miss
+    public BufferedImage peek(String key) {
+        synchronized (memory) {
+            BufferedImage image = memory.get(key);
+            if (image != null) {
+                memoryHits.increment();
+            }
+            return image;
+        }
+    }
+
+    // Memory, then disk (promoting the image back into memory); null on a miss
+    public BufferedImage get(String key) {
+        BufferedImage image = peek(key);
+        if (image != null) {
+            return image;
+        }
+        image = readDisk(key);
+        if (image != null) {
+            diskHits.increment();
+            putMemory(key, image);
+            return image;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, BufferedImage image) {
+        putMemory(key, image);
+        writeDisk(key, image);
+    }
+
+    static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private void putMemory(String key, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            BufferedImage previous = memory.put(key, image);
+            bytes += size - (previous == null ? 0 : sizeOf(previous));
+            Iterator<Map.Entry<String, BufferedImage>> eldest = memory.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= sizeOf(eldest.next().getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private void loadDiskIndex(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .forEach(path -> {
+                        String name = path.getFileName().toString();
+                        diskIndex.put(name.substring(0, name.length() - SUFFIX.length()), Boolean.TRUE);
+                    });
+        }
+    }
+
+    private BufferedImage readDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        synchronized (diskIndex) {
+            if (diskIndex.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            BufferedImage image = ImageIO.read(file(key).toFile());
+            if (image == null) {
+                deleteDisk(key);
+            }
+            return image;
+        } catch (IOException e) {
+            deleteDisk(key);
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, BufferedImage image) {
+        if (directory == null) {
+            return;
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, key, ".tmp");
+            ImageIO.write(image, "png", temp.toFile());
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The disk tier is best effort; the memory tier still holds the image
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Best effort, like the write itself
+                }
+            }
+            return;
+        }
+        String eldest = null;
+        synchronized (diskIndex) {
+            diskIndex.put(key, Boolean.TRUE);
+            if (diskIndex.size() > maxDiskEntries) {
+                eldest = diskIndex.keySet().iterator().next();
+            }
+        }
+        if (eldest != null) {
+            deleteDisk(eldest);
+            evictions.increment();
+        }
+    }
+
+    private void deleteDisk(String key) {
+        synchronized (diskIndex) {
+            diskIndex.remove(key);
+        }
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            // Left for the next startup scan
+        }
+    }
+
+    public long memoryHits() {
+        return memoryHits.sum();
+    }
+
+    public long diskHits() {
+        return diskHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    // Decoded bytes held in memory
+    public long bytes() {
+        synchronized (memory) {
+            return bytes;
+        }
+    }
+}
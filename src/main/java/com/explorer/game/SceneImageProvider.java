@@ -0,0 +1,10 @@
+package com.explorer.game;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+// Turns a room description into a picture at whatever resolution the provider works in.
+// SceneImages calls it on its worker pool and scales the result to the label, so it may be slow.
+public interface SceneImageProvider {
+    BufferedImage render(String description) throws IOException;
+}
@@ -0,0 +1,148 @@
+package com.explorer.game;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+// Scene pictures for the UI: a cached image completes at once, anything else is read from disk or painted by the
+// provider and scaled to the requested size on a small pool of low-priority daemon threads, apart from the
+// turn's own threads. A request cancelled before a worker picks it up (the player moved on) is skipped.
+public final class SceneImages {
+    private static final LatencyHistogram RENDER_TIME = Metrics.timer("grok_scene_seconds", "stage", "render");
+    private static final LatencyHistogram SCALE_TIME = Metrics.timer("grok_scene_seconds", "stage", "scale");
+    private static volatile SceneImages shared;
+
+    private final SceneImageProvider provider;
+    private final SceneImageCache cache;
+    private final ExecutorService workers;
+    private final LongAdder skipped = new LongAdder();
+
+    public SceneImages(SceneImageProvider provider, SceneImageCache cache, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.provider = provider;
+        this.cache = cache;
+        this.workers = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("scene-image-", 0).daemon().priority(Thread.MIN_PRIORITY).factory());
+    }
+
+    // Null when grok.scene.enabled=false
+    public static SceneImages shared() {
+        SceneImages images = shared;
+        if (images == null) {
+            synchronized (SceneImages.class) {
+                images = shared;
+                if (images == null && Boolean.parseBoolean(Config.get("grok.scene.enabled", "true"))) {
+                    String dir = Config.get("grok.scene.cache.dir",
+                            Path.of(System.getProperty("user.home"), ".lost-explorer", "scenes").toString());
+                    SceneImageCache cache = new SceneImageCache(
+                            Config.getInt("grok.scene.cache.maxMB", 16) * 1024L * 1024L,
+                            dir.isBlank() ? null : Path.of(dir),
+                            Config.getInt("grok.scene.cache.disk.maxEntries", 500));
+                    images = new SceneImages(providerFromConfig(), cache, Config.getInt("grok.scene.threads", 1));
+                    SceneImages registered = images;
+                    Metrics.counter("grok_scene_cache_lookups_total", cache::memoryHits, "result", "memory_hit");
+                    Metrics.counter("grok_scene_cache_lookups_total", cache::diskHits, "result", "disk_hit");
+                    Metrics.counter("grok_scene_cache_lookups_total", cache::misses, "result", "miss");
+                    Metrics.counter("grok_scene_cache_evictions_total", cache::evictions);
+                    Metrics.counter("grok_scene_skipped_total", registered::skipped);
+                    Metrics.gauge("grok_scene_cache_bytes", cache::bytes);
+                    shared = images;
+                }
+            }
+        }
+        return images;
+    }
+
+    private static SceneImageProvider providerFromConfig() {
+        String name = Config.get("grok.scene.provider", "procedural");
+        return switch (name) {
+            case "procedural" -> new ProceduralSceneRenderer(
+                    Config.getInt("grok.scene.procedural.width", 640),
+                    Config.getInt("grok.scene.procedural.height", 360));
+            default -> throw new IllegalStateException("Unknown grok.scene.provider: " + name);
+        };
+    }
+
+    // The scene scaled to fit within width x height, keeping its aspect ratio
+    public CompletableFuture<BufferedImage> request(String description, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Image size must be positive"));
+        }
+        String key = ResponseCache.key(description) + "-" + width + "x" + height;
+        BufferedImage cached = cache.peek(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<BufferedImage> result = new CompletableFuture<>();
+        workers.execute(() -> {
+            if (result.isDone()) {
+                skipped.increment();
+                return;
+            }
+            try {
+                result.complete(load(key, description, width, height));
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private BufferedImage load(String key, String description, int width, int height) throws IOException {
+        BufferedImage image = cache.get(key);
+        if (image != null) {
+            return image;
+        }
+        long started = System.nanoTime();
+        BufferedImage source = provider.render(description);
+        long rendered = System.nanoTime();
+        RENDER_TIME.record(rendered - started);
+        image = fit(source, width, height);
+        SCALE_TIME.record(System.nanoTime() - rendered);
+        cache.put(key, image);
+        return image;
+    }
+
+    // Halves the image with bilinear filtering until one last step reaches the target, which keeps big
+    // reductions smooth without the cost of an area-averaging scaler
+    static BufferedImage fit(BufferedImage source, int maxWidth, int maxHeight) {
+        double scale = Math.min((double) maxWidth / source.getWidth(), (double) maxHeight / source.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage image = source;
+        do {
+            int width = Math.max(targetWidth, image.getWidth() / 2);
+            int height = Math.max(targetHeight, image.getHeight() / 2);
+            if (targetWidth > image.getWidth() || targetHeight > image.getHeight()) {
+                width = targetWidth;
+                height = targetHeight;
+            }
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            image = step;
+        } while (image.getWidth() != targetWidth || image.getHeight() != targetHeight);
+        return image;
+    }
+
+    public long skipped() {
+        return skipped.sum();
+    }
+
+    public void close() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,369 @@
+package com.explorer.game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Per-session autosave: every applied turn is one small append to <session>.journal, written by a single
+// writer that batches whatever is queued into one write (group commit). Every compactEvery records the
+// journal is folded into <session>.snapshot and truncated. Recovery = snapshot + journal tail.
+public final class SessionJournal implements AutoCloseable {
+    public enum FsyncPolicy { NONE, BATCH, ALWAYS }
+
+    // snapshotSequence is the last record folded into the snapshot; records holds only later ones
+    public record Recovery(GameSnapshot snapshot, long snapshotSequence, List<JournalRecord> records) {
+    }
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final Set<SessionJournal> OPEN = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> OPEN.forEach(SessionJournal::close), "journal-shutdown"));
+    }
+
+    private sealed interface Pending permits Append, Compact, Close {
+    }
+
+    private record Append(JournalRecord record, CompletableFuture<Void> done) implements Pending {
+    }
+
+    // The snapshot is built on the writer thread; null means the state it described is gone and the
+    // journal is kept as it is
+    private record Compact(Supplier<GameSnapshot> snapshot, long lastSequence) implements Pending {
+    }
+
+    private record Close(CompletableFuture<Void> done) implements Pending {
+    }
+
+    private final Path snapshotFile;
+    private final FileChannel channel;
+    private final FsyncPolicy fsync;
+    private final int compactEvery;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private long nextSequence;
+    private int recordsSinceCompaction;
+    private volatile boolean closed;
+
+    private SessionJournal(Path directory, String sessionId, FsyncPolicy fsync, int compactEvery, long nextSequence)
+            throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve(sessionId + SNAPSHOT_SUFFIX);
+        this.channel = FileChannel.open(directory.resolve(sessionId + JOURNAL_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fsync = fsync;
+        this.compactEvery = compactEvery;
+        this.nextSequence = nextSequence;
+        this.writer = Thread.ofVirtual().name("journal-" + sessionId).start(this::drain);
+        OPEN.add(this);
+    }
+
+    public static SessionJournal open(Path directory, String sessionId, FsyncPolicy fsync, int compactEvery)
+            throws IOException {
+        return new SessionJournal(directory, sessionId, fsync, compactEvery, 1);
+    }
+
+    // Null when grok.journal.enabled=false
+    public static SessionJournal openFromConfig(String sessionId) {
+        if (!Boolean.parseBoolean(Config.get("grok.journal.enabled", "true"))) {
+            return null;
+        }
+        try {
+            return open(directoryFromConfig(), sessionId,
+                    FsyncPolicy.valueOf(Config.get("grok.journal.fsync", "batch").toUpperCase()),
+                    Config.getInt("grok.journal.compactEvery", 200));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open session journal", e);
+        }
+    }
+
+    public static Path directoryFromConfig() {
+        return Path.of(Config.get("grok.journal.dir",
+                Path.of(System.getProperty("user.home"), ".lost-explorer", "journal").toString()));
+    }
+
+    // Most recently written session that has a snapshot to recover from
+    public static Optional<String> latestSession(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .max(Comparator.comparingLong(SessionJournal::lastActivity))
+                    .map(path -> {
+                        String name = path.getFileName().toString();
+                        return name.substring(0, name.length() - SNAPSHOT_SUFFIX.length());
+                    });
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static long lastActivity(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        Path journal = snapshot.resolveSibling(name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()) + JOURNAL_SUFFIX);
+        return Math.max(snapshot.toFile().lastModified(), journal.toFile().lastModified());
+    }
+
+    // Loads the last snapshot and the intact part of the journal after it; a torn final record is dropped
+    public static Recovery recover(Path directory, String sessionId) throws IOException {
+        Path snapshotFile = directory.resolve(sessionId + SNAPSHOT_SUFFIX);
+        long snapshotSequence;
+        GameSnapshot snapshot;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshotFile))) {
+            snapshotSequence = in.readLong();
+            snapshot = SaveCodec.read(in);
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        Path journalFile = directory.resolve(sessionId + JOURNAL_SUFFIX);
+        if (Files.exists(journalFile)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(journalFile))) {
+                JournalRecord record;
+                while ((record = readRecord(in)) != null) {
+                    if (record.sequence() > snapshotSequence) {
+                        records.add(record);
+                    }
+                }
+            }
+        }
+        return new Recovery(snapshot, snapshotSequence, records);
+    }
+
+    // Continues an existing session after recovery, keeping its sequence numbers monotonic. The journal may be
+    // empty right after a compaction, so numbering continues past the snapshot too: a record numbered at or
+    // below it would be skipped by the next recovery.
+    public static SessionJournal resume(Path directory, String sessionId, Recovery recovery, FsyncPolicy fsync,
+                                        int compactEvery) throws IOException {
+        long last = recovery.snapshotSequence();
+        if (!recovery.records().isEmpty()) {
+            last = Math.max(last, recovery.records().get(recovery.records().size() - 1).sequence());
+        }
+        return new SessionJournal(directory, sessionId, fsync, compactEvery, last + 1);
+    }
+
+    public static SessionJournal resumeFromConfig(String sessionId, Recovery recovery) throws IOException {
+        return resume(directoryFromConfig(), sessionId, recovery,
+                FsyncPolicy.valueOf(Config.get("grok.journal.fsync", "batch").toUpperCase()),
+                Config.getInt("grok.journal.compactEvery", 200));
+    }
+
+    // Called from the turn thread; with FsyncPolicy.ALWAYS the future completes once the record is on disk
+    synchronized CompletableFuture<Void> append(JournalRecord.Kind kind, String choice, Room room, StateDelta delta,
+                                                String historyEntry) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (closed) {
+            done.completeExceptionally(new IOException("Journal closed"));
+            return done;
+        }
+        JournalRecord record = new JournalRecord(nextSequence++, kind, choice, room, delta, historyEntry);
+        recordsSinceCompaction++;
+        queue.add(new Append(record, done));
+        return done;
+    }
+
+    boolean waitsForFsync() {
+        return fsync == FsyncPolicy.ALWAYS;
+    }
+
+    synchronized boolean compactionDue() {
+        return recordsSinceCompaction >= compactEvery;
+    }
+
+    // The snapshot must reflect every record appended so far
+    synchronized void compact(Supplier<GameSnapshot> snapshot) {
+        if (!closed) {
+            recordsSinceCompaction = 0;
+            queue.add(new Compact(snapshot, nextSequence - 1));
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            List<CompletableFuture<Void>> acknowledged = new ArrayList<>();
+            Close closing = null;
+            try {
+                for (Pending pending : batch) {
+                    switch (pending) {
+                        case Append append -> {
+                            writeRecord(buffer, append.record());
+                            acknowledged.add(append.done());
+                        }
+                        case Compact compact -> {
+                            flush(buffer);
+                            GameSnapshot snapshot = compact.snapshot().get();
+                            if (snapshot != null) {
+                                writeSnapshot(snapshot, compact.lastSequence());
+                                channel.truncate(0);
+                            }
+                        }
+                        case Close close -> closing = close;
+                    }
+                }
+                flush(buffer);
+                if (fsync != FsyncPolicy.NONE || closing != null) {
+                    channel.force(false);
+                }
+                acknowledged.forEach(done -> done.complete(null));
+            } catch (IOException | RuntimeException e) {
+                // Every append in the batch fails with it, including those after the item that threw
+                for (Pending pending : batch) {
+                    if (pending instanceof Append append) {
+                        append.done().completeExceptionally(e);
+                    } else if (pending instanceof Close close) {
+                        closing = close;
+                    }
+                }
+                buffer.reset();
+            } finally {
+                batch.clear();
+            }
+            // A close is honoured even when the batch it came with failed, so close() never waits forever
+            if (closing != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Nothing left to write to
+                }
+                closing.done().complete(null);
+                return;
+            }
+        }
+    }
+
+    private void flush(ByteArrayOutputStream buffer) throws IOException {
+        if (buffer.size() > 0) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            buffer.reset();
+        }
+    }
+
+    private void writeSnapshot(GameSnapshot snapshot, long lastSequence) throws IOException {
+        Path temp = Files.createTempFile(snapshotFile.getParent(), snapshotFile.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            data.writeLong(lastSequence);
+            SaveCodec.write(snapshot, data, true);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Record framing: int length, int CRC32 of the payload, payload
+    private static void writeRecord(ByteArrayOutputStream buffer, JournalRecord record) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(256);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeLong(record.sequence());
+        payload.writeByte(record.kind().ordinal());
+        SaveCodec.writeString(payload, record.choice());
+        SaveCodec.writeString(payload, record.room().getDescription());
+        String[] options = record.room().getOptions();
+        SaveCodec.writeVarInt(payload, options.length);
+        for (String option : options) {
+            SaveCodec.writeString(payload, option);
+        }
+        SaveCodec.writeVarInt(payload, record.delta().inventoryUpdates().size());
+        for (String update : record.delta().inventoryUpdates()) {
+            SaveCodec.writeString(payload, update);
+        }
+        payload.writeInt(record.delta().healthDelta());
+        payload.writeInt(record.delta().scoreDelta());
+        SaveCodec.writeString(payload, record.historyEntry());
+
+        byte[] bytes = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        DataOutputStream frame = new DataOutputStream(buffer);
+        frame.writeInt(bytes.length);
+        frame.writeInt((int) crc.getValue());
+        frame.write(bytes);
+    }
+
+    private static JournalRecord readRecord(DataInputStream in) throws IOException {
+        byte[] header = new byte[8];
+        if (in.readNBytes(header, 0, header.length) < header.length) {
+            return null;
+        }
+        ByteBuffer frame = ByteBuffer.wrap(header);
+        int length = frame.getInt();
+        int expectedCrc = frame.getInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (bytes.length < length || (int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+        long sequence = payload.readLong();
+        JournalRecord.Kind kind = JournalRecord.Kind.values()[payload.readByte()];
+        String choice = SaveCodec.readString(payload);
+        String description = SaveCodec.readString(payload);
+        String[] options = new String[SaveCodec.readVarInt(payload)];
+        for (int i = 0; i < options.length; i++) {
+            options[i] = SaveCodec.readString(payload);
+        }
+        List<String> inventoryUpdates = new ArrayList<>();
+        int updates = SaveCodec.readVarInt(payload);
+        for (int i = 0; i < updates; i++) {
+            inventoryUpdates.add(SaveCodec.readString(payload));
+        }
+        StateDelta delta = new StateDelta(inventoryUpdates, payload.readInt(), payload.readInt());
+        String historyEntry = SaveCodec.readString(payload);
+        return new JournalRecord(sequence, kind, choice, new Room(description, options), delta, historyEntry);
+    }
+
+    @Override
+    public void close() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(new Close(done));
+        }
+        OPEN.remove(this);
+        done.join();
+    }
+}
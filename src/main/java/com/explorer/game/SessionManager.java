@@ -0,0 +1,376 @@
+package com.explorer.game;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Headless host for many concurrent adventures. Each turn runs on its own virtual thread (see Game.submitTurn);
+// turns for one session are chained so they apply in submission order, while sessions never wait on each other.
+// With hibernation on, a session idle for longer than the idle period, or pushed out of the live set by maxLive
+// (least recently used first), is serialized into an off-heap ColdSessionStore and its Game dropped; its next
+// turn or get() rebuilds it. Heap use then follows the number of active sessions, not the total.
+public final class SessionManager implements AutoCloseable {
+    private static final LatencyHistogram HIBERNATE_TIME = Metrics.timer("grok_session_hibernate_seconds");
+    private static final LatencyHistogram REHYDRATE_TIME = Metrics.timer("grok_session_rehydrate_seconds");
+    private static final LongAdder HIBERNATE_REJECTED = Metrics.counter("grok_session_hibernate_rejected_total");
+
+    private final StoryBackend backend;
+    private final int maxSessions;
+    private final Hibernation hibernation;
+    private final ColdSessionStore cold;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    // Sessions holding a Game, least recently used first
+    private final LinkedHashMap<String, Session> live = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread sweeper;
+
+    // idle of zero never hibernates for inactivity; maxLive of zero puts no cap on live sessions; a cold store
+    // of zero bytes turns hibernation off, including hibernate(sessionId)
+    public record Hibernation(Duration idle, int maxLive, long coldStoreBytes, boolean compress) {
+        public static final Hibernation OFF = new Hibernation(Duration.ZERO, 0, 0, false);
+
+        public Hibernation {
+            if (idle.isNegative() || maxLive < 0 || coldStoreBytes < 0
+                    || (coldStoreBytes == 0 && (!idle.isZero() || maxLive > 0))) {
+                throw new IllegalArgumentException("Invalid hibernation settings");
+            }
+        }
+
+        public static Hibernation fromConfig() {
+            return new Hibernation(
+                    Duration.ofSeconds(Config.getInt("grok.sessions.idleSeconds", 600)),
+                    Config.getInt("grok.sessions.maxLive", 0),
+                    Config.getInt("grok.sessions.coldStoreMB", 1024) * 1024L * 1024L,
+                    Boolean.parseBoolean(Config.get("grok.sessions.hibernate.compress", "true")));
+        }
+    }
+
+    private static final class Session {
+        private final String id;
+        private Game game;
+        // The serialized game while hibernated
+        private ByteBuffer hibernated;
+        private boolean streaming;
+        private boolean prefetch;
+        private volatile long lastActiveNanos = System.nanoTime();
+        private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+        private Session(String id, Game game) {
+            this.id = id;
+            this.game = game;
+        }
+    }
+
+    private static final class Bytes extends ByteArrayOutputStream {
+        Bytes() {
+            super(4096);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    public SessionManager(StoryBackend backend, int maxSessions) {
+        this(backend, maxSessions, Hibernation.OFF);
+    }
+
+    public SessionManager(StoryBackend backend, int maxSessions, Hibernation hibernation) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("maxSessions must be positive");
+        }
+        this.backend = backend;
+        this.maxSessions = maxSessions;
+        this.hibernation = hibernation;
+        this.cold = hibernation.coldStoreBytes() > 0 ? new ColdSessionStore(hibernation.coldStoreBytes()) : null;
+        this.sweeper = hibernation.idle().isZero() ? null : startSweeper();
+        if (cold != null) {
+            Metrics.gauge("grok_sessions", this::liveCount, "state", "live");
+            Metrics.gauge("grok_sessions", cold::records, "state", "hibernated");
+            Metrics.gauge("grok_session_cold_bytes", cold::storedBytes, "kind", "stored");
+            Metrics.gauge("grok_session_cold_bytes", cold::reservedBytes, "kind", "reserved");
+        }
+    }
+
+    public static SessionManager fromConfig() {
+        MetricsExporter.startFromConfig();
+        return new SessionManager(StoryBackends.shared(), Config.getInt("grok.sessions.max", 10_000),
+                Hibernation.fromConfig());
+    }
+
+    // Completes with the new session id once the opening room has been generated
+    public CompletableFuture<String> createSession(String theme) {
+        if (reserved.incrementAndGet() > maxSessions) {
+            reserved.decrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("Session limit reached (" + maxSessions + ")"));
+        }
+        return CompletableFuture.supplyAsync(() -> new Game(theme, backend), executor)
+                .handle((game, error) -> {
+                    if (error != null) {
+                        reserved.decrementAndGet();
+                        throw error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+                    }
+                    Session session = new Session(game.getSessionId(), game);
+                    sessions.put(session.id, session);
+                    touch(session);
+                    return session.id;
+                });
+    }
+
+    // Adopts an existing game, e.g. one restored from a save or a journal. Journaled games are never hibernated.
+    public String register(Game game) {
+        if (reserved.incrementAndGet() > maxSessions) {
+            reserved.decrementAndGet();
+            throw new IllegalStateException("Session limit reached (" + maxSessions + ")");
+        }
+        Session session = new Session(game.getSessionId(), game);
+        if (sessions.putIfAbsent(session.id, session) != null) {
+            reserved.decrementAndGet();
+            throw new IllegalStateException("Session already registered: " + game.getSessionId());
+        }
+        touch(session);
+        return session.id;
+    }
+
+    public CompletableFuture<TurnResult> submitTurn(String sessionId, String choice) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return CompletableFuture.failedFuture(new NoSuchElementException("Unknown session: " + sessionId));
+        }
+        CompletableFuture<TurnResult> turn;
+        synchronized (session) {
+            session.lastActiveNanos = System.nanoTime();
+            turn = session.tail.handle((result, error) -> null)
+                    .thenCompose(ignored -> awake(session).submitTurn(choice));
+            session.tail = turn;
+        }
+        return turn.whenComplete((result, error) -> {
+            session.lastActiveNanos = System.nanoTime();
+            Game game;
+            synchronized (session) {
+                game = session.game;
+            }
+            if (game != null && !game.isRunning()) {
+                close(sessionId);
+            }
+        });
+    }
+
+    public void cancelTurn(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session != null) {
+            Game game;
+            synchronized (session) {
+                game = session.game;
+            }
+            if (game != null) {
+                game.cancelTurn();
+            }
+        }
+    }
+
+    // Rehydrates a hibernated session. The Game is only good until the session next goes idle;
+    // keep the session id, not the Game, across turns.
+    public Optional<Game> get(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        session.lastActiveNanos = System.nanoTime();
+        return Optional.of(awake(session));
+    }
+
+    public Collection<String> sessionIds() {
+        return sessions.keySet();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    public int liveCount() {
+        synchronized (live) {
+            return live.size();
+        }
+    }
+
+    public int hibernatedCount() {
+        return cold == null ? 0 : cold.records();
+    }
+
+    // Off-heap bytes held by hibernated sessions
+    public long hibernatedBytes() {
+        return cold == null ? 0 : cold.storedBytes();
+    }
+
+    // Hibernates the session now if it has no turn queued or running; false if it stays live
+    public boolean hibernate(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null || cold == null) {
+            return false;
+        }
+        synchronized (session) {
+            return hibernate(session);
+        }
+    }
+
+    public void close(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            reserved.decrementAndGet();
+            synchronized (session) {
+                if (session.game != null) {
+                    session.game.close();
+                    session.game = null;
+                } else if (session.hibernated != null) {
+                    cold.release(session.hibernated);
+                    session.hibernated = null;
+                }
+            }
+            synchronized (live) {
+                live.remove(sessionId);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.interrupt();
+        }
+        sessions.keySet().forEach(this::close);
+        executor.shutdown();
+    }
+
+    private Game awake(Session session) {
+        Game game;
+        synchronized (session) {
+            game = session.game;
+            if (game == null) {
+                game = rehydrate(session);
+            }
+        }
+        touch(session);
+        return game;
+    }
+
+    // Caller holds the session's monitor
+    private Game rehydrate(Session session) {
+        if (session.hibernated == null) {
+            throw new NoSuchElementException("Session closed: " + session.id);
+        }
+        long started = System.nanoTime();
+        Game game;
+        try {
+            game = Game.fromSnapshot(SaveCodec.read(ColdSessionStore.open(session.hibernated)), backend);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rehydrate session " + session.id, e);
+        }
+        game.setStreaming(session.streaming);
+        game.setSpeculativePrefetch(session.prefetch);
+        cold.release(session.hibernated);
+        session.hibernated = null;
+        session.game = game;
+        REHYDRATE_TIME.record(System.nanoTime() - started);
+        return game;
+    }
+
+    // Caller holds the session's monitor
+    private boolean hibernate(Session session) {
+        Game game = session.game;
+        if (game == null || !session.tail.isDone() || !game.isRunning() || game.isJournaled()) {
+            return false;
+        }
+        long started = System.nanoTime();
+        Bytes bytes = new Bytes();
+        try {
+            SaveCodec.write(game.snapshot(), bytes, hibernation.compress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer record = cold.store(bytes.buffer(), bytes.size());
+        if (record == null) {
+            HIBERNATE_REJECTED.increment();
+            return false;
+        }
+        session.streaming = game.isStreaming();
+        session.prefetch = game.isSpeculativePrefetch();
+        session.hibernated = record;
+        session.game = null;
+        game.close();
+        synchronized (live) {
+            live.remove(session.id);
+        }
+        HIBERNATE_TIME.record(System.nanoTime() - started);
+        return true;
+    }
+
+    // Marks the session most recently used and, over maxLive, hibernates the least recently used ones
+    private void touch(Session session) {
+        List<Session> overflow = List.of();
+        synchronized (live) {
+            live.put(session.id, session);
+            int excess = hibernation.maxLive() > 0 ? live.size() - hibernation.maxLive() : 0;
+            if (excess > 0) {
+                overflow = new ArrayList<>(excess);
+                for (Session candidate : live.values()) {
+                    if (overflow.size() == excess) {
+                        break;
+                    }
+                    if (candidate != session) {
+                        overflow.add(candidate);
+                    }
+                }
+            }
+        }
+        // Off this thread, which may hold another session's monitor
+        for (Session candidate : overflow) {
+            executor.execute(() -> {
+                synchronized (candidate) {
+                    hibernate(candidate);
+                }
+            });
+        }
+    }
+
+    private Thread startSweeper() {
+        long idleNanos = hibernation.idle().toNanos();
+        Duration interval = Duration.ofNanos(Math.max(Duration.ofSeconds(1).toNanos(), idleNanos / 4));
+        return Thread.ofVirtual().name("session-hibernator").start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(interval);
+                    List<Session> candidates;
+                    synchronized (live) {
+                        candidates = new ArrayList<>(live.values());
+                    }
+                    long now = System.nanoTime();
+                    for (Session session : candidates) {
+                        if (now - session.lastActiveNanos >= idleNanos) {
+                            synchronized (session) {
+                                hibernate(session);
+                            }
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
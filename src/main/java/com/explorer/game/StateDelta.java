@@ -0,0 +1,24 @@
+package com.explorer.game;
+
+import java.util.List;
+
+// Player changes requested by a generated room; held back until the room is actually entered
+public record StateDelta(List<String> inventoryUpdates, int healthDelta, int scoreDelta) {
+    public static final StateDelta NONE = new StateDelta(List.of(), 0, 0);
+
+    public StateDelta {
+        inventoryUpdates = List.copyOf(inventoryUpdates);
+    }
+
+    public void applyTo(Player player) {
+        for (String update : inventoryUpdates) {
+            if (update.startsWith("-")) {
+                player.removeItem(update.substring(1));
+            } else {
+                player.addItem(update);
+            }
+        }
+        player.adjustHealth(healthDelta);
+        player.addScore(scoreDelta);
+    }
+}
@@ -0,0 +1,20 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// Turns a prompt into a room payload: the JSON object with description, options and state updates.
+// When contentListener is non-null the backend may stream and should forward raw payload text as it arrives.
+public interface StoryBackend {
+    String generate(StoryRequest request, Consumer<String> contentListener) throws IOException;
+
+    default String generate(StoryRequest request) throws IOException {
+        return generate(request, null);
+    }
+
+    // True for content this backend returned as a stand-in (e.g. an offline room while the API is down),
+    // which callers must not cache as the answer to the prompt
+    default boolean isFallback(String content) {
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+package com.explorer.game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+// Picks the backend named by story.backend: grok (default), procedural, record or replay
+public final class StoryBackends {
+    private static volatile StoryBackend shared;
+
+    private StoryBackends() {
+    }
+
+    public static StoryBackend shared() {
+        StoryBackend backend = shared;
+        if (backend == null) {
+            synchronized (StoryBackends.class) {
+                backend = shared;
+                if (backend == null) {
+                    backend = fromConfig();
+                    shared = backend;
+                }
+            }
+        }
+        return backend;
+    }
+
+    public static StoryBackend fromConfig() {
+        String name = Config.get("story.backend", "grok");
+        try {
+            return switch (name) {
+                case "grok" -> breaker(hedging(api()));
+                case "procedural" -> batching(ProceduralBackend.fromConfig());
+                case "record" -> RecordReplayBackend.recording(hedging(api()), recordFile());
+                case "replay" -> RecordReplayBackend.replaying(recordFile(), null);
+                default -> throw new IllegalStateException("Unknown story.backend: " + name);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + recordFile(), e);
+        }
+    }
+
+    private static StoryBackend api() {
+        GrokHttpBackend grok = GrokHttpBackend.fromConfig();
+        return gateway(batching(grok), grok.policy());
+    }
+
+    // Rate limiting, retries and coalescing only matter in front of the real API. The tokens/min bucket reserves
+    // each turn type's current max_tokens and is charged afterwards for any continuation calls.
+    private static StoryBackend gateway(StoryBackend backend, TurnPolicy policy) {
+        if (!Boolean.parseBoolean(Config.get("grok.gateway.enabled", "true"))) {
+            return backend;
+        }
+        BackendGateway gateway = new BackendGateway(backend, BackendGateway.Settings.fromConfig(),
+                request -> policy.choose(request.kind()).maxTokens());
+        policy.onContinuations(gateway::charge);
+        Metrics.counter("grok_gateway_calls_total", gateway::calls);
+        Metrics.counter("grok_gateway_coalesced_total", gateway::coalesced);
+        Metrics.counter("grok_gateway_retries_total", gateway::retries);
+        Metrics.counter("grok_gateway_rejected_total", gateway::rejected);
+        Metrics.counter("grok_gateway_throttled_seconds_total", () -> gateway.throttledMillis() / 1e3);
+        return gateway;
+    }
+
+    // Above the gateway, so a hedge waits for its own requests/min and tokens/min permit like any other call;
+    // its attempt number keeps the gateway from coalescing it with the attempt it duplicates. Off by default:
+    // every hedge is a second paid request
+    private static StoryBackend hedging(StoryBackend backend) {
+        if (!Boolean.parseBoolean(Config.get("grok.hedge.enabled", "false"))) {
+            return backend;
+        }
+        HedgingBackend hedging = HedgingBackend.fromConfig(backend);
+        Metrics.counter("grok_hedge_requests_total", hedging::requests);
+        Metrics.counter("grok_hedge_hedges_total", hedging::hedges);
+        Metrics.gauge("grok_hedge_delay_seconds", () -> hedging.currentHedgeDelayMillis() / 1e3);
+        return hedging;
+    }
+
+    // Outermost, so an open circuit skips the gateway's queue and retries entirely
+    private static StoryBackend breaker(StoryBackend backend) {
+        if (!Boolean.parseBoolean(Config.get("grok.breaker.enabled", "true"))) {
+            return backend;
+        }
+        CircuitBreakerBackend breaker = CircuitBreakerBackend.fromConfig(backend);
+        Metrics.gauge("grok_breaker_open", () -> breaker.state() == CircuitBreakerBackend.State.CLOSED ? 0 : 1);
+        Metrics.counter("grok_breaker_short_circuited_total", breaker::shortCircuited);
+        Metrics.counter("grok_breaker_fallbacks_total", breaker::fallbacks);
+        return breaker;
+    }
+
+    // Off by default: batching trades a few milliseconds per turn for fewer upstream calls under load
+    private static StoryBackend batching(BatchStoryBackend backend) {
+        if (!Boolean.parseBoolean(Config.get("grok.batch.enabled", "false"))) {
+            return backend;
+        }
+        MicroBatcher batcher = MicroBatcher.fromConfig(backend);
+        Metrics.counter("grok_batch_batches_total", batcher::batches);
+        Metrics.counter("grok_batch_requests_total", batcher::batchedRequests);
+        Metrics.gauge("grok_batch_average_size", batcher::averageBatchSize);
+        return batcher;
+    }
+
+    private static Path recordFile() {
+        return Path.of(Config.get("story.record.file", "story-recording.jsonl"));
+    }
+}
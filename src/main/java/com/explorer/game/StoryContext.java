@@ -0,0 +1,230 @@
+package com.explorer.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+// Rolling memory for prompts: the last few turns verbatim-ish, older turns folded into a one-line-per-event
+// summary, and everything fitted under a local token estimate so request size stays flat as sessions grow.
+final class StoryContext {
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int SUMMARY_WORDS = 14;
+    private static final int RECENT_WORDS = 60;
+
+    private final int maxTokens;
+    private final int recentTurns;
+    private final int summaryTokens;
+    private final ArrayDeque<String> recent = new ArrayDeque<>();
+    private final ArrayDeque<String> summary = new ArrayDeque<>();
+    private int summaryTokenCount;
+    private int omittedEvents;
+
+    StoryContext(int maxTokens, int recentTurns, int summaryTokens) {
+        if (maxTokens <= 0 || recentTurns < 0 || summaryTokens < 0) {
+            throw new IllegalArgumentException("Context limits must be positive");
+        }
+        this.maxTokens = maxTokens;
+        this.recentTurns = recentTurns;
+        this.summaryTokens = summaryTokens;
+    }
+
+    static StoryContext fromConfig() {
+        return new StoryContext(
+                Config.getInt("grok.context.maxTokens", 1500),
+                Config.getInt("grok.context.recentTurns", 4),
+                Config.getInt("grok.context.summaryTokens", 300));
+    }
+
+    // Rough local estimate (~4 characters per token for English); good enough to keep requests bounded
+    static int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    int maxTokens() {
+        return maxTokens;
+    }
+
+    synchronized void record(String historyEntry) {
+        recent.addLast(recentLine(historyEntry));
+        while (recent.size() > recentTurns) {
+            String older = recent.removeFirst();
+            String line = truncateWords(older, SUMMARY_WORDS);
+            summary.addLast(line);
+            summaryTokenCount += estimateTokens(line) + 1;
+        }
+        // Compress the summary by dropping its oldest events, keeping a count so the model knows they happened
+        while (summaryTokenCount > summaryTokens && !summary.isEmpty()) {
+            summaryTokenCount -= estimateTokens(summary.removeFirst()) + 1;
+            omittedEvents++;
+        }
+    }
+
+    // Same state as reset() then record() for each entry, oldest first, but walks back from the newest entry
+    // and stops once the summary is full, so only the entries that survive are summarized
+    synchronized void seed(List<String> historyEntries) {
+        reset();
+        int end = historyEntries.size();
+        int firstRecent = Math.max(0, end - recentTurns);
+        for (int i = firstRecent; i < end; i++) {
+            recent.addLast(recentLine(historyEntries.get(i)));
+        }
+        int i = firstRecent - 1;
+        for (; i >= 0; i--) {
+            String line = truncateWords(recentLine(historyEntries.get(i)), SUMMARY_WORDS);
+            int cost = estimateTokens(line) + 1;
+            if (summaryTokenCount + cost > summaryTokens) {
+                break;
+            }
+            summary.addFirst(line);
+            summaryTokenCount += cost;
+        }
+        omittedEvents = i + 1;
+    }
+
+    synchronized void reset() {
+        recent.clear();
+        summary.clear();
+        summaryTokenCount = 0;
+        omittedEvents = 0;
+    }
+
+    // Fits the variable parts of a prompt into what remains after its fixed text
+    synchronized Rendered render(int fixedChars, String room, Inventory inventory) {
+        int budget = Math.max(0, maxTokens - (fixedChars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN);
+        String fittedRoom = truncateTokens(room, Math.max(1, budget * 2 / 5));
+        budget -= estimateTokens(fittedRoom);
+        String fittedInventory = inventoryText(inventory, Math.max(1, budget / 4));
+        budget -= estimateTokens(fittedInventory);
+
+        List<String> recentLines = newestFirstWithin(recent, budget);
+        budget -= tokens(recentLines);
+        List<String> summaryLines = newestFirstWithin(summary, budget);
+
+        StringBuilder story = new StringBuilder();
+        int dropped = omittedEvents + summary.size() - summaryLines.size();
+        if (dropped > 0) {
+            story.append("(").append(dropped).append(" earlier events) ");
+        }
+        if (!summaryLines.isEmpty()) {
+            story.append("Earlier: ").append(String.join("; ", summaryLines)).append(". ");
+        }
+        if (!recentLines.isEmpty()) {
+            story.append("Recently: ").append(String.join(" | ", recentLines));
+        }
+        if (story.isEmpty()) {
+            story.append("This is the beginning of the adventure.");
+        }
+        return new Rendered(fittedRoom, fittedInventory, story.toString().trim());
+    }
+
+    record Rendered(String room, String inventory, String story) {
+    }
+
+    private static List<String> newestFirstWithin(ArrayDeque<String> lines, int budget) {
+        List<String> kept = new ArrayList<>();
+        Iterator<String> newest = lines.descendingIterator();
+        while (newest.hasNext()) {
+            String line = newest.next();
+            int cost = estimateTokens(line) + 1;
+            if (cost > budget) {
+                break;
+            }
+            budget -= cost;
+            kept.add(0, line);
+        }
+        return kept;
+    }
+
+    private static int tokens(List<String> lines) {
+        int total = 0;
+        for (String line : lines) {
+            total += estimateTokens(line) + 1;
+        }
+        return total;
+    }
+
+    // Stacked entries ("torch x2"), cut with a remainder count when the list would exceed the budget
+    static String inventoryText(Inventory inventory, int budget) {
+        InventoryLine line = new InventoryLine(budget * CHARS_PER_TOKEN);
+        inventory.forEachStack(line);
+        return line.finish();
+    }
+
+    private static final class InventoryLine implements ObjIntConsumer<String> {
+        private final StringBuilder text = new StringBuilder("[");
+        private final int maxChars;
+        private int shown;
+        private int hidden;
+
+        InventoryLine(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public void accept(String item, int quantity) {
+            int length = item.length() + (quantity > 1 ? 2 + Integer.toString(quantity).length() : 0);
+            if (hidden > 0 || (shown > 0 && text.length() + 2 + length > maxChars)) {
+                hidden++;
+                return;
+            }
+            text.append(shown == 0 ? "" : ", ").append(item);
+            if (quantity > 1) {
+                text.append(" x").append(quantity);
+            }
+            shown++;
+        }
+
+        String finish() {
+            if (hidden > 0) {
+                text.append(", and ").append(hidden).append(" more");
+            }
+            return text.append("]").toString();
+        }
+    }
+
+    private static String recentLine(String historyEntry) {
+        String line = historyEntry.replace("You chose: ", "").replace("\nResult: ", " -> ")
+                .replace("Started adventure: ", "Start -> ").replace('\n', ' ');
+        return truncateWords(line, RECENT_WORDS);
+    }
+
+    // First maxWords whitespace-separated words joined by single spaces, plus "..." if any were cut.
+    // One scan, no regex: it runs for every history entry when a session is restored or rehydrated.
+    private static String truncateWords(String text, int maxWords) {
+        String trimmed = text.trim();
+        StringBuilder out = null;
+        int words = 0;
+        int i = 0;
+        int n = trimmed.length();
+        while (i < n) {
+            int start = i;
+            while (i < n && !Character.isWhitespace(trimmed.charAt(i))) {
+                i++;
+            }
+            if (++words > maxWords) {
+                return out.append("...").toString();
+            }
+            if (out == null) {
+                out = new StringBuilder(Math.min(n, maxWords * 8));
+            } else {
+                out.append(' ');
+            }
+            out.append(trimmed, start, i);
+            while (i < n && Character.isWhitespace(trimmed.charAt(i))) {
+                i++;
+            }
+        }
+        return trimmed;
+    }
+
+    private static String truncateTokens(String text, int maxTokens) {
+        int maxChars = maxTokens * CHARS_PER_TOKEN;
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', maxChars - 3);
+        return text.substring(0, cut > 0 ? cut : maxChars - 3) + "...";
+    }
+}
@@ -0,0 +1,20 @@
+package com.explorer.game;
+
+// kind is the turn type the prompt was built for; backends may size the response and pick the model by it.
+// attempt is 0 for the first call and counts up for hedged duplicates of the same request.
+public record StoryRequest(String sessionId, String prompt, Kind kind, int attempt) {
+    public enum Kind { START, OPTION, USE, CUSTOM }
+
+    public StoryRequest(String sessionId, String prompt, Kind kind) {
+        this(sessionId, prompt, kind, 0);
+    }
+
+    // Unknown turn types are treated as the most open-ended one
+    public StoryRequest(String sessionId, String prompt) {
+        this(sessionId, prompt, Kind.CUSTOM);
+    }
+
+    public StoryRequest withAttempt(int attempt) {
+        return new StoryRequest(sessionId, prompt, kind, attempt);
+    }
+}
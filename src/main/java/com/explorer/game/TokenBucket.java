@@ -0,0 +1,30 @@
+package com.explorer.game;
+
+// Token bucket that may go into debt: a reservation larger than what is available is granted
+// immediately but the caller is told how long to wait before using it. That keeps large requests
+// from starving and lets a single dispatcher pace callers in order.
+final class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double available;
+    private long lastRefill;
+
+    TokenBucket(long perMinute, long capacity) {
+        if (perMinute <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = perMinute / 60e9;
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    // Takes the tokens and returns how many nanoseconds the caller must wait before proceeding
+    synchronized long reserve(long tokens) {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        available -= tokens;
+        return available >= 0 ? 0 : (long) Math.ceil(-available / tokensPerNano);
+    }
+}
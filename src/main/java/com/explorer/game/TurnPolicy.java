@@ -0,0 +1,236 @@
+package com.explorer.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Model, max_tokens and temperature for each kind of turn. When adaptive, a kind's max_tokens follows the p95 of its
+// recent completion lengths plus a quarter, within [minTokens, ceilingTokens], and grows by half after a reply is cut
+// off. Calls are reported by kind and model (latency, tokens, truncations, continuations, and cost in USD for models
+// with a grok.price.<model>.* entry) as metrics and through report().
+public final class TurnPolicy {
+    private static final int WINDOW = 64;
+    private static final int MIN_SAMPLES = 8;
+    private static final double HEADROOM = 1.25;
+    private static final String BATCH = "batch";
+
+    public record Choice(String model, int maxTokens, double temperature) {
+    }
+
+    private record Price(double inputPerMillion, double outputPerMillion) {
+    }
+
+    private final EnumMap<StoryRequest.Kind, Budget> budgets = new EnumMap<>(StoryRequest.Kind.class);
+    private final boolean adaptive;
+    private final int minTokens;
+    private final int ceilingTokens;
+    private final int maxContinuations;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Price> prices = new ConcurrentHashMap<>();
+    private volatile ContinuationListener continuationListener = (requests, tokens) -> {
+    };
+
+    // Told about the extra calls made to finish cut-off replies, which happen after the turn itself was admitted
+    @FunctionalInterface
+    public interface ContinuationListener {
+        void used(int requests, long tokens);
+    }
+
+    public TurnPolicy(Map<StoryRequest.Kind, Choice> choices, boolean adaptive, int minTokens, int ceilingTokens,
+                      int maxContinuations) {
+        if (minTokens <= 0 || ceilingTokens < minTokens || maxContinuations < 0) {
+            throw new IllegalArgumentException("Invalid turn policy limits");
+        }
+        for (StoryRequest.Kind kind : StoryRequest.Kind.values()) {
+            Choice choice = choices.get(kind);
+            if (choice == null || choice.maxTokens() <= 0) {
+                throw new IllegalArgumentException("No turn policy for " + kind);
+            }
+            budgets.put(kind, new Budget(choice));
+            String label = label(kind);
+            Metrics.gauge("grok_policy_max_tokens", () -> budgets.get(kind).choice().maxTokens(), "kind", label);
+        }
+        this.adaptive = adaptive;
+        this.minTokens = minTokens;
+        this.ceilingTokens = ceilingTokens;
+        this.maxContinuations = maxContinuations;
+    }
+
+    // The same model and limit for every kind, with the API's default temperature; nothing is learned
+    public static TurnPolicy fixed(String model, int maxTokens) {
+        EnumMap<StoryRequest.Kind, Choice> choices = new EnumMap<>(StoryRequest.Kind.class);
+        for (StoryRequest.Kind kind : StoryRequest.Kind.values()) {
+            choices.put(kind, new Choice(model, maxTokens, Double.NaN));
+        }
+        return new TurnPolicy(choices, false, maxTokens, maxTokens, Config.getInt("grok.policy.maxContinuations", 2));
+    }
+
+    // grok.policy.enabled=false keeps the single grok.api.model / grok.api.maxTokens setting for every turn
+    public static TurnPolicy fromConfig() {
+        String model = Config.get("grok.api.model", GrokHttpBackend.DEFAULT_MODEL);
+        if (!Boolean.parseBoolean(Config.get("grok.policy.enabled", "true"))) {
+            return fixed(model, Config.getInt("grok.api.maxTokens", 200));
+        }
+        EnumMap<StoryRequest.Kind, Choice> choices = new EnumMap<>(StoryRequest.Kind.class);
+        for (StoryRequest.Kind kind : StoryRequest.Kind.values()) {
+            String prefix = "grok.policy." + label(kind) + ".";
+            // An opening room sets the scene and a free-form action needs interpreting; a listed option is routine
+            Choice defaults = switch (kind) {
+                case START -> new Choice(model, 300, 0.9);
+                case OPTION -> new Choice(model, 200, 0.7);
+                case USE -> new Choice(model, 240, 0.8);
+                case CUSTOM -> new Choice(model, 280, 0.9);
+            };
+            choices.put(kind, new Choice(
+                    Config.get(prefix + "model", defaults.model()),
+                    Config.getInt(prefix + "maxTokens", defaults.maxTokens()),
+                    Double.parseDouble(Config.get(prefix + "temperature", Double.toString(defaults.temperature())))));
+        }
+        return new TurnPolicy(choices,
+                Boolean.parseBoolean(Config.get("grok.policy.adaptive", "true")),
+                Config.getInt("grok.policy.minTokens", 96),
+                Config.getInt("grok.policy.ceilingTokens", 800),
+                Config.getInt("grok.policy.maxContinuations", 2));
+    }
+
+    public Choice choose(StoryRequest.Kind kind) {
+        return budgets.get(kind).choice();
+    }
+
+    public int maxContinuations() {
+        return maxContinuations;
+    }
+
+    public void onContinuations(ContinuationListener listener) {
+        this.continuationListener = listener;
+    }
+
+    void continued(int requests, long tokens) {
+        continuationListener.used(requests, tokens);
+    }
+
+    // One generated room: a null kind is a batch of several. truncations counts replies that hit max_tokens;
+    // more truncations than continuations means the room was still cut off when the policy gave up.
+    public void record(StoryRequest.Kind kind, String model, long nanos, int promptTokens, int completionTokens,
+                       int truncations, int continuations) {
+        if (kind != null && adaptive) {
+            budgets.get(kind).observe(completionTokens, truncations > 0);
+        }
+        String label = kind == null ? BATCH : label(kind);
+        Stats entry = stats.computeIfAbsent(label + "/" + model, key -> new Stats(kind, label, model, price(model)));
+        entry.latency.record(nanos);
+        entry.requests.increment();
+        entry.promptTokens.add(promptTokens);
+        entry.completionTokens.add(completionTokens);
+        entry.cost.add((promptTokens * entry.price.inputPerMillion() + completionTokens * entry.price.outputPerMillion()) / 1e6);
+        if (truncations > 0) {
+            entry.truncated.increment();
+        }
+        entry.continuations.add(continuations);
+        if (truncations > continuations) {
+            entry.unfinished.increment();
+        }
+    }
+
+    // One line per kind and model seen so far
+    public String report() {
+        List<Stats> entries = new ArrayList<>(stats.values());
+        entries.sort((a, b) -> (a.label + a.model).compareTo(b.label + b.model));
+        StringBuilder out = new StringBuilder(String.format("%-8s %-20s %8s %9s %9s %11s %10s %9s %10s %12s%n",
+                "kind", "model", "requests", "p50 ms", "p95 ms", "out tokens", "truncated", "continued", "max_tokens",
+                "USD/1k turns"));
+        for (Stats entry : entries) {
+            long requests = entry.requests.sum();
+            out.append(String.format("%-8s %-20s %8d %9.1f %9.1f %11.1f %10d %9d %10s %12.4f%n",
+                    entry.label, entry.model, requests, entry.latency.percentileMillis(0.5),
+                    entry.latency.percentileMillis(0.95), (double) entry.completionTokens.sum() / Math.max(1, requests),
+                    entry.truncated.sum(), entry.continuations.sum(),
+                    entry.kind == null ? "-" : Integer.toString(choose(entry.kind).maxTokens()),
+                    entry.cost.sum() * 1000 / Math.max(1, requests)));
+        }
+        return out.toString();
+    }
+
+    private static String label(StoryRequest.Kind kind) {
+        return kind.name().toLowerCase(Locale.ROOT);
+    }
+
+    // USD per million tokens from grok.price.<model>.input and .output; zero (no cost reported) when unset
+    private Price price(String model) {
+        return prices.computeIfAbsent(model, name -> new Price(
+                Double.parseDouble(Config.get("grok.price." + name + ".input", "0")),
+                Double.parseDouble(Config.get("grok.price." + name + ".output", "0"))));
+    }
+
+    private final class Budget {
+        private final Choice configured;
+        private final int[] recent = new int[WINDOW];
+        private int next;
+        private int samples;
+        private Choice current;
+
+        private Budget(Choice configured) {
+            this.configured = configured;
+            this.current = configured;
+        }
+
+        synchronized Choice choice() {
+            return current;
+        }
+
+        synchronized void observe(int completionTokens, boolean truncated) {
+            recent[next] = completionTokens;
+            next = (next + 1) % WINDOW;
+            samples = Math.min(samples + 1, WINDOW);
+            int limit = current.maxTokens();
+            if (truncated) {
+                limit = Math.min(ceilingTokens, Math.max(limit + limit / 2, completionTokens + completionTokens / 4));
+            } else if (samples >= MIN_SAMPLES) {
+                int[] sorted = Arrays.copyOf(recent, samples);
+                Arrays.sort(sorted);
+                int p95 = sorted[(int) Math.ceil(samples * 0.95) - 1];
+                limit = Math.clamp((long) Math.ceil(p95 * HEADROOM), minTokens, ceilingTokens);
+            }
+            if (limit != current.maxTokens()) {
+                current = new Choice(configured.model(), limit, configured.temperature());
+            }
+        }
+    }
+
+    private static final class Stats {
+        private final StoryRequest.Kind kind;
+        private final String label;
+        private final String model;
+        private final Price price;
+        private final LatencyHistogram latency;
+        private final LongAdder requests;
+        private final LongAdder promptTokens;
+        private final LongAdder completionTokens;
+        private final LongAdder truncated;
+        private final LongAdder continuations;
+        private final LongAdder unfinished;
+        private final DoubleAdder cost = new DoubleAdder();
+
+        private Stats(StoryRequest.Kind kind, String label, String model, Price price) {
+            this.kind = kind;
+            this.label = label;
+            this.model = model;
+            this.price = price;
+            this.latency = Metrics.timer("grok_policy_seconds", "kind", label, "model", model);
+            this.requests = Metrics.counter("grok_policy_requests_total", "kind", label, "model", model);
+            this.promptTokens = Metrics.counter("grok_policy_tokens_total", "kind", label, "model", model, "type", "prompt");
+            this.completionTokens = Metrics.counter("grok_policy_tokens_total", "kind", label, "model", model,
+                    "type", "completion");
+            this.truncated = Metrics.counter("grok_policy_truncated_total", "kind", label, "model", model);
+            this.continuations = Metrics.counter("grok_policy_continuations_total", "kind", label, "model", model);
+            this.unfinished = Metrics.counter("grok_policy_unfinished_total", "kind", label, "model", model);
+            Metrics.counter("grok_policy_cost_usd_total", cost::sum, "kind", label, "model", model);
+        }
+    }
+}
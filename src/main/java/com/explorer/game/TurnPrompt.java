@@ -0,0 +1,90 @@
+package com.explorer.game;
+
+// The three per-turn prompts, compiled once. Slots: 1 theme, 2 room, 3 action, 4 inventory, 5 health,
+// 6 score, 7 story so far.
+public enum TurnPrompt {
+    USE("""
+        You are Grok, powering a text adventure game in Java 21. The adventure theme is: '%1$s'.
+        Story so far: %7$s
+        The player is at: '%2$s'. They chose to use the item: '%3$s'. Their inventory is: %4$s, health is: %5$d, score is: %6$d.
+        Interpret this action creatively. Return a JSON response with 'description' (new room description),
+        'options' (array of 2-3 options including 'q. Quit'),
+        'inventoryUpdates' (array of items to add or remove, e.g., '-torch'),
+        'healthUpdates' (int, change in health, optional),
+        and 'scoreUpdates' (int, points to add, optional). Keep it immersive.
+        """),
+    OPTION("""
+        You are Grok, powering a text adventure game in Java 21. The adventure theme is: '%1$s'.
+        Story so far: %7$s
+        The player is at: '%2$s'. They chose the predefined option: '%3$s'. Their inventory is: %4$s, health is: %5$d, score is: %6$d.
+        Return a JSON response with 'description' (new room description),
+        'options' (array of 2-3 options including 'q. Quit'),
+        'inventoryUpdates' (array of items to add, if any),
+        'healthUpdates' (int, change in health, optional),
+        and 'scoreUpdates' (int, points to add, optional). Keep it immersive.
+        """),
+    CUSTOM("""
+        You are Grok, powering a text adventure game in Java 21. The adventure theme is: '%1$s'.
+        Story so far: %7$s
+        The player is at: '%2$s'. They entered a custom action: '%3$s'. Their inventory is: %4$s, health is: %5$d, score is: %6$d.
+        Interpret this action creatively in the context of the current scene and theme.
+        Return a JSON response with 'description' (new room description based on the action),
+        'options' (array of 2-3 options including 'q. Quit'),
+        'inventoryUpdates' (array of items to add, if any),
+        'healthUpdates' (int, change in health, optional),
+        and 'scoreUpdates' (int, points to add, optional). Keep it immersive.
+        """);
+
+    private final PromptTemplate template;
+
+    TurnPrompt(String text) {
+        this.template = PromptTemplate.compile(text);
+    }
+
+    public PromptTemplate template() {
+        return template;
+    }
+
+    // Length of the prompt without the room, inventory and story slots, which the caller sizes to what is left
+    public int fixedLength(String theme, String action, int health, int score) {
+        int length = template.literalLength();
+        for (int i = 0; i < template.segments(); i++) {
+            length += switch (template.slot(i)) {
+                case 1 -> theme.length();
+                case 3 -> action.length();
+                case 5 -> decimalLength(health);
+                case 6 -> decimalLength(score);
+                default -> 0;
+            };
+        }
+        return length;
+    }
+
+    private static int decimalLength(int value) {
+        int length = value < 0 ? 2 : 1;
+        for (long rest = Math.abs((long) value); rest >= 10; rest /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    // Appends the filled prompt to out; produces the same text as template().text().formatted(...)
+    public void render(StringBuilder out, String theme, CharSequence room, String action, CharSequence inventory,
+                       int health, int score, CharSequence story) {
+        for (int i = 0; i < template.segments(); i++) {
+            out.append(template.literal(i));
+            switch (template.slot(i)) {
+                case 1 -> out.append(theme);
+                case 2 -> out.append(room);
+                case 3 -> out.append(action);
+                case 4 -> out.append(inventory);
+                case 5 -> out.append(health);
+                case 6 -> out.append(score);
+                case 7 -> out.append(story);
+                default -> {
+                    // NO_SLOT after the trailing literal
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.explorer.game;
+
+import java.util.List;
+
+public record TurnResult(String choice, Room room, List<String> inventory, int health, int score, String error) {
+
+    public TurnResult {
+        inventory = List.copyOf(inventory);
+    }
+
+    static TurnResult of(Game game, String choice) {
+        return new TurnResult(choice, game.getCurrentRoom(), game.getPlayerInventory(),
+                game.getPlayerHealth(), game.getPlayerScore(), game.getLastError());
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,208 @@
+package com.explorer.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// The rooms generated so far, each with a stable ID, and which choice led from one to the next. Taking a
+// known choice again, or going back the way you came, is answered from here without an API call.
+// Rooms are kept in least-recently-visited order and the oldest are dropped beyond maxRooms; choices that
+// led to a dropped room are simply generated again.
+public final class WorldGraph {
+    public static final int NONE = -1;
+
+    private static final LongAdder revisits = Metrics.counter("grok_world_rooms_total", "kind", "revisit");
+    private static final LongAdder generated = Metrics.counter("grok_world_rooms_total", "kind", "generated");
+    private static final LongAdder evictions = Metrics.counter("grok_world_evictions_total");
+
+    public record RoomState(int id, Room room, int backId, Map<String, Integer> edges) {
+        public RoomState {
+            edges = Collections.unmodifiableMap(new LinkedHashMap<>(edges));
+        }
+    }
+
+    // Oldest visit first; currentId is NONE when the player is somewhere not worth keeping (e.g. dead)
+    public record State(int nextId, int currentId, List<RoomState> rooms) {
+        public static final State EMPTY = new State(0, NONE, List.of());
+
+        public State {
+            rooms = List.copyOf(rooms);
+        }
+    }
+
+    private static final class Node {
+        final int id;
+        final Room room;
+        final Map<String, Node> edges = new HashMap<>(4);
+        Node back;
+        boolean evicted;
+
+        Node(int id, Room room) {
+            this.id = id;
+            this.room = room;
+        }
+    }
+
+    private final int maxRooms;
+    private final LinkedHashMap<Integer, Node> nodes;
+    private int nextId;
+    private Node current;
+
+    public WorldGraph(int maxRooms) {
+        if (maxRooms < 2) {
+            throw new IllegalArgumentException("The world must hold at least two rooms");
+        }
+        this.maxRooms = maxRooms;
+        // Access order: a visit moves the room to the young end, eviction takes from the old end
+        this.nodes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                if (size() <= WorldGraph.this.maxRooms || eldest.getValue() == current) {
+                    return false;
+                }
+                evict(eldest.getValue());
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    static WorldGraph fromConfig() {
+        return new WorldGraph(Config.getInt("grok.world.maxRooms", 500));
+    }
+
+    static WorldGraph restore(State state, int maxRooms) {
+        WorldGraph world = new WorldGraph(maxRooms);
+        // Linked through a side index: lookups in the access-ordered map would reorder it
+        Map<Integer, Node> byId = new HashMap<>();
+        for (RoomState room : state.rooms()) {
+            byId.put(room.id(), new Node(room.id(), room.room()));
+        }
+        for (RoomState room : state.rooms()) {
+            Node node = byId.get(room.id());
+            node.back = byId.get(room.backId());
+            room.edges().forEach((choice, target) -> {
+                Node to = byId.get(target);
+                if (to != null) {
+                    node.edges.put(choice, to);
+                }
+            });
+            world.nodes.put(node.id, node);
+        }
+        world.nextId = state.nextId();
+        world.current = byId.get(state.currentId());
+        return world;
+    }
+
+    public State state() {
+        List<RoomState> rooms = new ArrayList<>(nodes.size());
+        for (Node node : nodes.values()) {
+            Map<String, Integer> edges = new LinkedHashMap<>();
+            node.edges.forEach((choice, target) -> {
+                if (!target.evicted) {
+                    edges.put(choice, target.id);
+                }
+            });
+            int backId = node.back != null && !node.back.evicted ? node.back.id : NONE;
+            rooms.add(new RoomState(node.id, node.room, backId, edges));
+        }
+        return new State(nextId, current == null ? NONE : current.id, rooms);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public int currentId() {
+        return current == null ? NONE : current.id;
+    }
+
+    // Room a choice from the current room is known to lead to, or null; doesn't count as a visit
+    public Room known(String choice) {
+        Node target = target(choice);
+        return target == null ? null : target.room;
+    }
+
+    // Follows a known choice; the caller has checked known(choice)
+    Room revisit(String choice) {
+        Node target = target(choice);
+        if (target == null) {
+            throw new IllegalStateException("No known room for '" + choice + "'");
+        }
+        current = target;
+        nodes.get(target.id); // Marks it recently visited
+        revisits.increment();
+        return target.room;
+    }
+
+    // A freshly generated room reached by choice; linked only when taking the choice again should lead here
+    void arrive(String choice, Room room, boolean link) {
+        Node node = new Node(nextId++, room);
+        Node from = current;
+        if (from != null) {
+            node.back = from;
+            if (link) {
+                from.edges.put(key(choice), node);
+            }
+        }
+        current = node;
+        nodes.put(node.id, node);
+        generated.increment();
+    }
+
+    // A new adventure: forgets every room and starts from this one
+    void start(Room room) {
+        nodes.values().forEach(WorldGraph::evict);
+        nodes.clear();
+        current = null;
+        arrive(null, room, false);
+    }
+
+    // The player is in a room that shouldn't be revisited; nothing links to or from it
+    void leave() {
+        current = null;
+    }
+
+    private Node target(String choice) {
+        if (current == null) {
+            return null;
+        }
+        Node target = Game.isBackCommand(choice) ? current.back : current.edges.get(key(choice));
+        return target == null || target.evicted ? null : target;
+    }
+
+    private static void evict(Node node) {
+        // Cut its own links so a chain of dropped rooms can't stay reachable through it
+        node.evicted = true;
+        node.edges.clear();
+        node.back = null;
+    }
+
+    private static String key(String choice) {
+        return choice.trim().toLowerCase();
+    }
+
+    // Turns answered from the graph instead of the API
+    public static long revisits() {
+        return revisits.sum();
+    }
+
+    public static long generated() {
+        return generated.sum();
+    }
+
+    public static long evictions() {
+        return evictions.sum();
+    }
+
+    // Share of moves that reached an already generated room
+    public static double revisitRate() {
+        long r = revisits.sum();
+        long total = r + generated.sum();
+        return total == 0 ? 0.0 : (double) r / total;
+    }
+}
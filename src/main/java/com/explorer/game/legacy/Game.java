@@ -0,0 +1,29 @@
+package com.explorer.game.legacy;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+// Field-for-field shape of the original serialized Game; only used to read and write .dat saves
+public final class Game implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    Room currentRoom;
+    Player player;
+    boolean running;
+    String lastChoice;
+    String adventureTheme;
+    List<String> history;
+    String sessionId;
+
+    Game(Room currentRoom, Player player, boolean running, String lastChoice, String adventureTheme,
+         List<String> history, String sessionId) {
+        this.currentRoom = currentRoom;
+        this.player = player;
+        this.running = running;
+        this.lastChoice = lastChoice;
+        this.adventureTheme = adventureTheme;
+        this.history = history;
+        this.sessionId = sessionId;
+    }
+}
@@ -0,0 +1,85 @@
+package com.explorer.game.legacy;
+
+import com.explorer.game.GameSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Reads the Java-serialization saves written before the binary format behind an allowlist filter
+// (java.lang.Object is only there for the Object[] that ArrayList checks). Java matches serialized classes
+// by simple name, so the stubs in this package stand in for the old com.explorer.game classes.
+public final class LegacySaveFormat {
+    private static final String OLD_PACKAGE = "com.explorer.game.";
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=10;maxrefs=10000000;maxbytes=1073741824;"
+                    + "com.explorer.game.legacy.*;java.util.ArrayList;java.lang.String;java.lang.Object;!*");
+
+    private LegacySaveFormat() {
+    }
+
+    public static GameSnapshot read(InputStream in) throws IOException {
+        try (ObjectInputStream objects = new LegacyObjectInputStream(in)) {
+            objects.setObjectInputFilter(FILTER);
+            Game game = (Game) objects.readObject();
+            Player player = game.player;
+            Room room = game.currentRoom;
+            return new GameSnapshot(
+                    game.sessionId != null ? game.sessionId : UUID.randomUUID().toString(),
+                    game.adventureTheme,
+                    game.lastChoice,
+                    game.running,
+                    player.health,
+                    player.score,
+                    player.inventory != null ? player.inventory : List.of(),
+                    new com.explorer.game.Room(room.description, room.options),
+                    game.history != null ? game.history : List.of());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidClassException("Not a Lost Explorer save: " + e.getMessage());
+        }
+    }
+
+    // Kept so benchmarks can compare against the old format and saves can be exported for older builds
+    public static void write(GameSnapshot snapshot, OutputStream out) throws IOException {
+        com.explorer.game.Room room = snapshot.currentRoom();
+        Game game = new Game(
+                new Room(room.getDescription(), room.getOptions()),
+                new Player(new ArrayList<>(snapshot.inventory()), snapshot.health(), snapshot.score()),
+                snapshot.running(),
+                snapshot.lastChoice(),
+                snapshot.theme(),
+                new ArrayList<>(snapshot.history()),
+                snapshot.sessionId());
+        ObjectOutputStream objects = new ObjectOutputStream(out);
+        objects.writeObject(game);
+        objects.flush();
+    }
+
+    private static final class LegacyObjectInputStream extends ObjectInputStream {
+        LegacyObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            String name = desc.getName();
+            if (name.startsWith(OLD_PACKAGE) && name.indexOf('.', OLD_PACKAGE.length()) < 0) {
+                return switch (name.substring(OLD_PACKAGE.length())) {
+                    case "Game" -> Game.class;
+                    case "Player" -> Player.class;
+                    case "Room" -> Room.class;
+                    default -> throw new ClassNotFoundException(name);
+                };
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
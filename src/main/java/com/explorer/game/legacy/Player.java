@@ -0,0 +1,19 @@
+package com.explorer.game.legacy;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+public final class Player implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    List<String> inventory;
+    int health;
+    int score;
+
+    Player(List<String> inventory, int health, int score) {
+        this.inventory = inventory;
+        this.health = health;
+        this.score = score;
+    }
+}
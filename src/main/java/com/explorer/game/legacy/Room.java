@@ -0,0 +1,16 @@
+package com.explorer.game.legacy;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+public final class Room implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    String description;
+    String[] options;
+
+    Room(String description, String[] options) {
+        this.description = description;
+        this.options = options;
+    }
+}